@@ -0,0 +1,104 @@
+#!/bin/bash
+# Arranque de auth-svc en contenedor: ms desde docker run hasta el primer GET /health con 200,
+# y RSS de la JVM en ese momento (mediana de N arranques por variante).
+#
+# Variantes de la imagen actual: jar (sin AOT ni CDS), aot, aot+cds (ENTRYPOINT por defecto)
+# y aot+cds+lazy. Con BASELINE_IMAGE se mide ademas una imagen anterior, por ejemplo la que
+# esta desplegada hoy, con su propio ENTRYPOINT.
+#
+# Uso: [BASELINE_IMAGE=registry/auth-svc:actual] ./bench-startup.sh [arranques]
+set -euo pipefail
+cd "$(dirname "$0")"
+
+RUNS=${1:-5}
+IMAGE=${IMAGE:-auth-svc:startup-bench}
+BASELINE_IMAGE=${BASELINE_IMAGE:-}
+NETWORK=auth-startup-bench
+DB=auth-startup-bench-db
+APP=auth-startup-bench-app
+PORT=${PORT:-18080}
+JAR=/app/auth-svc-0.0.1-SNAPSHOT.jar
+
+cleanup() {
+    docker rm -f "$APP" "$DB" >/dev/null 2>&1 || true
+    docker network rm "$NETWORK" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+cleanup
+
+echo "[startup-bench] Construyendo $IMAGE"
+docker build -q -t "$IMAGE" . >/dev/null
+
+docker network create "$NETWORK" >/dev/null
+docker run -d --name "$DB" --network "$NETWORK" \
+    -e POSTGRES_DB=auth -e POSTGRES_USER=auth -e POSTGRES_PASSWORD=auth \
+    postgres:16-alpine >/dev/null
+until docker exec "$DB" pg_isready -U auth -d auth >/dev/null 2>&1; do sleep 0.5; done
+
+# Arranca una replica, espera /health y deja "ms rss_mb" en stdout.
+# start_once imagen [opciones de docker run] [-- argumentos del contenedor]
+start_once() {
+    local image=$1
+    shift
+    local opts=()
+    while [ $# -gt 0 ] && [ "$1" != "--" ]; do
+        opts+=("$1")
+        shift
+    done
+    [ $# -gt 0 ] && shift
+    local started
+    started=$(date +%s%N)
+    docker run -d --name "$APP" --network "$NETWORK" -p "$PORT:8080" \
+        -e SPRING_DATASOURCE_URL="jdbc:postgresql://$DB:5432/auth" \
+        -e SPRING_DATASOURCE_USERNAME=auth \
+        -e SPRING_DATASOURCE_PASSWORD=auth \
+        -e APP_JWT_SECRET=startup-bench-secret-startup-bench-secret \
+        "${opts[@]}" "$image" "$@" >/dev/null
+    local deadline=$((started + 120000000000))
+    until curl -fsS -o /dev/null "http://localhost:$PORT/health"; do
+        if [ "$(date +%s%N)" -gt "$deadline" ]; then
+            docker logs --tail 50 "$APP" >&2
+            echo "[startup-bench] $image no respondio /health en 120 s" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    local ready
+    ready=$(date +%s%N)
+    # java es el PID 1 (ENTRYPOINT en forma exec)
+    local rss_kb
+    rss_kb=$(docker exec "$APP" awk '/VmRSS/ {print $2}' /proc/1/status)
+    docker rm -f "$APP" >/dev/null
+    echo "$(((ready - started) / 1000000)) $((rss_kb / 1024))"
+}
+
+median() {
+    sort -n | awk '{v[NR] = $1} END {print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2)}'
+}
+
+# measure variante imagen [opciones de docker run] [-- argumentos del contenedor]
+measure() {
+    local label=$1 image=$2
+    shift 2
+    local samples=() sample
+    for _ in $(seq "$RUNS"); do
+        sample=$(start_once "$image" "$@") || exit 1
+        samples+=("$sample")
+    done
+    local ms rss
+    ms=$(printf '%s\n' "${samples[@]}" | awk '{print $1}' | median)
+    rss=$(printf '%s\n' "${samples[@]}" | awk '{print $2}' | median)
+    printf '%-16s %10s %10s\n' "$label" "$ms" "$rss"
+}
+
+# El primer arranque aplica las migraciones de Flyway: no se mide
+start_once "$IMAGE" >/dev/null || exit 1
+
+printf '%-16s %10s %10s\n' "variante" "health_ms" "rss_mb"
+if [ -n "$BASELINE_IMAGE" ]; then
+    measure "baseline" "$BASELINE_IMAGE"
+fi
+measure "jar" "$IMAGE" --entrypoint java -- -jar "$JAR"
+measure "aot" "$IMAGE" --entrypoint java -- -Dspring.aot.enabled=true -jar "$JAR"
+measure "aot+cds" "$IMAGE"
+measure "aot+cds+lazy" "$IMAGE" -e SPRING_PROFILES_ACTIVE=lazy
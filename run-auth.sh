@@ -11,4 +11,8 @@ echo -n "$APP_JWT_SECRET" | wc -c
 export APP_JWT_SECRET
 export APP_JWT_EXP_MIN
 
+# El esquema lo gestiona Flyway; Hibernate solo verifica que las entidades coincidan
+export SPRING_FLYWAY_ENABLED=true
+export SPRING_JPA_HIBERNATE_DDL_AUTO=validate
+
 ./gradlew bootRun
\ No newline at end of file
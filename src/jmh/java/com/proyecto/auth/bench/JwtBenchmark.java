@@ -0,0 +1,57 @@
+package com.proyecto.auth.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.proyecto.auth.service.JwtKeyRing;
+import com.proyecto.auth.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Emision y validacion de access tokens con cada algoritmo soportado. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-0123456789";
+
+    @Param({"HS256", "RS256", "ES256"})
+    String algorithm;
+
+    private JwtService jwtService;
+    private String subject;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing(new ObjectMapper(), algorithm, "", "", "", true, 24, 300, 480);
+        jwtService = new JwtService(keyRing, new SimpleMeterRegistry(), SECRET, "auth-svc", 480);
+        subject = UUID.randomUUID().toString();
+        token = jwtService.generate(subject, "TECNICO");
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtService.generate(subject, "TECNICO");
+    }
+
+    @Benchmark
+    public String getSubject() {
+        return jwtService.getSubject(token);
+    }
+}
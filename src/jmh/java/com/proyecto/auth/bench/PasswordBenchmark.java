@@ -0,0 +1,58 @@
+package com.proyecto.auth.bench;
+
+import com.proyecto.auth.service.HashingExecutor;
+import com.proyecto.auth.service.PasswordService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Costo de BCrypt por operacion, pasando por el pool de hashing como en el login. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordBenchmark {
+
+    @Param({"10", "12", "14"})
+    int cost;
+
+    private HashingExecutor hashingExecutor;
+    private PasswordService passwordService;
+    private String encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hashingExecutor = new HashingExecutor(new SimpleMeterRegistry(), 0, 64, 60_000, 1);
+        passwordService = new PasswordService(hashingExecutor, cost, 50, 10, 14);
+        encoded = passwordService.encode("correct horse battery staple");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordService.encode("correct horse battery staple");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordService.matches("correct horse battery staple", encoded);
+    }
+}
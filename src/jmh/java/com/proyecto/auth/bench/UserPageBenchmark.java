@@ -0,0 +1,63 @@
+package com.proyecto.auth.bench;
+
+import com.proyecto.auth.model.User;
+import com.proyecto.auth.repo.UserSummary;
+import com.proyecto.auth.web.UserPage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Armado del listado a partir de las filas usuario x equipo, sobre un directorio completo:
+ * uno de cada diez tecnicos pertenece a dos equipos y aparece en dos filas contiguas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UserPageBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int users;
+
+    private List<UserSummary> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<UUID> supervisors = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, users / 50); i++) {
+            supervisors.add(UUID.randomUUID());
+        }
+        rows = new ArrayList<>(users + users / 10);
+        for (int i = 0; i < users; i++) {
+            UUID id = UUID.randomUUID();
+            String email = String.format("user%07d@demo.com", i);
+            UUID supervisorId = supervisors.get(i % supervisors.size());
+            rows.add(new UserSummary(id, "Usuario " + i, email, User.Role.TECNICO, supervisorId));
+            if (i % 10 == 0) {
+                UUID secondTeam = supervisors.get((i + 1) % supervisors.size());
+                rows.add(new UserSummary(id, "Usuario " + i, email, User.Role.TECNICO, secondTeam));
+            }
+        }
+    }
+
+    @Benchmark
+    public UserPage assemble() {
+        return UserPage.from(rows, users);
+    }
+}
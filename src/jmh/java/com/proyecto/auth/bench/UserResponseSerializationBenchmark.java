@@ -0,0 +1,55 @@
+package com.proyecto.auth.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.proyecto.auth.web.UserResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Serializacion de una pagina de /auth/users (tamano por defecto y maximo). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserResponseSerializationBenchmark {
+
+    @Param({"100", "500"})
+    int size;
+
+    private ObjectWriter writer;
+    private List<UserResponse> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        writer = mapper.writerFor(TypeFactory.defaultInstance().constructCollectionType(List.class, UserResponse.class));
+        users = new ArrayList<>(size);
+        UUID supervisorId = UUID.randomUUID();
+        for (int i = 0; i < size; i++) {
+            users.add(new UserResponse(UUID.randomUUID(), "Usuario " + i, "user" + i + "@demo.com",
+                    "TECNICO", supervisorId, supervisorId));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(users);
+    }
+}
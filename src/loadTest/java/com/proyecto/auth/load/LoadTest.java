@@ -0,0 +1,311 @@
+package com.proyecto.auth.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.proyecto.auth.AuthApplication;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Prueba de carga local: levanta la aplicacion contra Postgres (local o en un contenedor
+ * efimero) y un stub de supervisores en proceso, y mide /auth/login, /auth/register y
+ * /users/{id} con una mezcla configurable de operaciones.
+ *
+ * <p>Se ejecuta con {@code ./gradlew loadTest}; los parametros {@code -Pload.*} se documentan en
+ * build.gradle. Las propiedades {@code load.app.<clave>} se pasan tal cual a la aplicacion.
+ */
+public final class LoadTest {
+
+    private static final String PASSWORD = "Load-Test-Passw0rd";
+    private static final String APP_PREFIX = "load.app.";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http;
+    private final String baseUrl;
+    private final List<UUID> supervisorIds;
+    private final List<Seeded> users = new CopyOnWriteArrayList<>();
+    private final AtomicInteger emailSequence = new AtomicInteger();
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final Duration requestTimeout;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final String[] mix;
+
+    private record Seeded(UUID id, String email) {
+    }
+
+    private LoadTest(String baseUrl, List<UUID> supervisorIds, int concurrency, Duration requestTimeout, String mixSpec) {
+        this.baseUrl = baseUrl;
+        this.supervisorIds = supervisorIds;
+        this.requestTimeout = requestTimeout;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(2, concurrency / 4)))
+                .build();
+        for (String endpoint : List.of("login", "register", "user")) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+        this.mix = parseMix(mixSpec);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("load.concurrency", 32);
+        int seedUsers = Integer.getInteger("load.users", 200);
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration-seconds", 60));
+        Duration requestTimeout = Duration.ofMillis(Long.getLong("load.request-timeout-ms", 10_000));
+        String mixSpec = System.getProperty("load.mix", "login=70,register=10,user=20");
+        Path report = Path.of(System.getProperty("load.report", "build/reports/load-test/summary.json"));
+
+        PostgreSQLContainer<?> postgres = null;
+        ConfigurableApplicationContext context = null;
+        try (SupervisorsStub stub = new SupervisorsStub(
+                Integer.getInteger("load.stub.supervisors", 20),
+                Long.getLong("load.stub.latency-ms", 20),
+                Long.getLong("load.stub.jitter-ms", 10),
+                Double.parseDouble(System.getProperty("load.stub.error-rate", "0")))) {
+
+            Map<String, Object> props = new HashMap<>();
+            String dbUrl = System.getProperty("load.db-url", "");
+            if (dbUrl.isBlank()) {
+                postgres = new PostgreSQLContainer<>(System.getProperty("load.db-image", "postgres:16-alpine"));
+                postgres.start();
+                props.put("spring.datasource.url", postgres.getJdbcUrl());
+                props.put("spring.datasource.username", postgres.getUsername());
+                props.put("spring.datasource.password", postgres.getPassword());
+            } else {
+                props.put("spring.datasource.url", dbUrl);
+                props.put("spring.datasource.username", System.getProperty("load.db-user", "postgres"));
+                props.put("spring.datasource.password", System.getProperty("load.db-password", "postgres"));
+            }
+            props.put("server.port", 0);
+            props.put("spring.flyway.enabled", true);
+            props.put("spring.jpa.hibernate.ddl-auto", "validate");
+            props.put("ops.supervisors.base-url", stub.baseUrl());
+            props.put("jwt.secret", "load-test-secret-load-test-secret-0123456789");
+            props.put("spring.datasource.hikari.maximum-pool-size", Math.max(10, concurrency));
+            // todo el trafico sale de 127.0.0.1: se mide el servicio, no el limite por IP
+            props.put("auth.throttle.enabled", false);
+            System.getProperties().stringPropertyNames().stream()
+                    .filter(key -> key.startsWith(APP_PREFIX))
+                    .forEach(key -> props.put(key.substring(APP_PREFIX.length()), System.getProperty(key)));
+
+            context = new SpringApplicationBuilder(AuthApplication.class).properties(props).run();
+            String port = context.getEnvironment().getProperty("local.server.port");
+
+            LoadTest test = new LoadTest("http://127.0.0.1:" + port, stub.supervisorIds(), concurrency, requestTimeout, mixSpec);
+            test.seed(seedUsers, concurrency);
+            System.out.printf("Seeded %d users, warming up for %ds%n", test.users.size(), warmup.toSeconds());
+            test.run(concurrency, warmup);
+            test.stats.values().forEach(EndpointStats::reset);
+
+            System.out.printf("Measuring %d workers for %ds (mix %s)%n", concurrency, duration.toSeconds(), mixSpec);
+            try (RuntimeSampler sampler = new RuntimeSampler(200)) {
+                long elapsed = test.run(concurrency, duration);
+                test.report(elapsed, concurrency, mixSpec, stub, sampler.summary(), report);
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (postgres != null) {
+                postgres.stop();
+            }
+        }
+        System.exit(0);
+    }
+
+    private void seed(int count, int concurrency) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> pending = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                pending.add(pool.submit(() -> {
+                    register(null);
+                    return null;
+                }));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        if (users.isEmpty()) {
+            throw new IllegalStateException("Could not seed any user: check the application log");
+        }
+    }
+
+    /** Ejecuta la mezcla con {@code concurrency} trabajadores y devuelve los nanos transcurridos. */
+    private long run(int concurrency, Duration duration) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    String op = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+                    switch (op) {
+                        case "login" -> login(stats.get(op));
+                        case "register" -> register(stats.get(op));
+                        default -> getUser(stats.get(op));
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(duration.toSeconds() + requestTimeout.toSeconds() + 30, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void login(EndpointStats endpoint) {
+        Seeded user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+        send(endpoint, post("/auth/login", Map.of("email", user.email(), "password", PASSWORD)));
+    }
+
+    private void register(EndpointStats endpoint) {
+        String email = "load-" + runId + "-" + emailSequence.incrementAndGet() + "@demo.com";
+        Map<String, Object> body = new HashMap<>();
+        body.put("email", email);
+        body.put("password", PASSWORD);
+        body.put("name", "Load " + email);
+        body.put("role", "TECNICO");
+        body.put("supervisorId", supervisorIds.get(ThreadLocalRandom.current().nextInt(supervisorIds.size())));
+        String response = send(endpoint, post("/auth/register", body));
+        if (response != null) {
+            try {
+                JsonNode json = mapper.readTree(response);
+                users.add(new Seeded(UUID.fromString(json.get("id").asText()), email));
+            } catch (IOException | RuntimeException ex) {
+                // respuesta inesperada: el usuario no entra al pool de login
+            }
+        }
+    }
+
+    private void getUser(EndpointStats endpoint) {
+        Seeded user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+        send(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + "/users/" + user.id()))
+                .timeout(requestTimeout)
+                .GET()
+                .build());
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Devuelve el cuerpo si la respuesta fue 2xx; {@code endpoint} null no registra metricas (siembra). */
+    private String send(EndpointStats endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        String outcome;
+        String body = null;
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            boolean ok = response.statusCode() / 100 == 2;
+            outcome = "http_" + response.statusCode();
+            body = ok ? response.body() : null;
+        } catch (HttpTimeoutException ex) {
+            outcome = "timeout";
+        } catch (IOException ex) {
+            outcome = "io_error";
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (endpoint != null) {
+            endpoint.record(System.nanoTime() - start, body != null, outcome);
+        }
+        return body;
+    }
+
+    private void report(long elapsedNanos, int concurrency, String mixSpec, SupervisorsStub stub,
+                        Map<String, Object> runtime, Path file) throws IOException {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%n%-10s %10s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (EndpointStats endpoint : stats.values()) {
+            System.out.printf("%-10s %10d %10.1f %9d %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.name(), endpoint.count(), endpoint.count() / seconds, endpoint.errorCount(),
+                    endpoint.percentileMillis(50), endpoint.percentileMillis(99),
+                    endpoint.percentileMillis(99.9), endpoint.maxMillis());
+            if (endpoint.errorCount() > 0) {
+                System.out.printf("%-10s errors: %s%n", "", endpoint.errorsByOutcome());
+            }
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", endpoint.count());
+            summary.put("throughputPerSecond", endpoint.count() / seconds);
+            summary.put("errors", endpoint.errorsByOutcome());
+            summary.put("p50Ms", endpoint.percentileMillis(50));
+            summary.put("p99Ms", endpoint.percentileMillis(99));
+            summary.put("p999Ms", endpoint.percentileMillis(99.9));
+            summary.put("maxMs", endpoint.maxMillis());
+            endpoints.put(endpoint.name(), summary);
+        }
+        System.out.printf("supervisors stub: %d requests, %d injected errors%n", stub.requests(), stub.injectedErrors());
+        System.out.printf("runtime: %s%n", runtime);
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("concurrency", concurrency);
+        document.put("durationSeconds", seconds);
+        document.put("mix", mixSpec);
+        document.put("endpoints", endpoints);
+        document.put("supervisorsStub", Map.of("requests", stub.requests(), "injectedErrors", stub.injectedErrors()));
+        document.put("runtime", runtime);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        mapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), document);
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+
+    // "login=70,register=10,user=20" -> tabla con una entrada por unidad de peso, se elige con un solo random
+    private static String[] parseMix(String spec) {
+        List<String> table = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] entry = part.trim().split("=");
+            if (entry.length != 2 || !List.of("login", "register", "user").contains(entry[0].trim())) {
+                throw new IllegalArgumentException("Invalid load.mix entry: " + part);
+            }
+            int weight = Integer.parseInt(entry[1].trim());
+            for (int i = 0; i < weight; i++) {
+                table.add(entry[0].trim());
+            }
+        }
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no weights");
+        }
+        return table.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,58 @@
+package com.proyecto.auth.load;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Muestrea hilos de plataforma y heap de la JVM (la aplicacion corre en el mismo proceso) para
+ * comparar el modo thread-per-request con el de hilos virtuales. Los hilos virtuales no cuentan
+ * en ThreadMXBean: la diferencia de hilos vivos es justamente lo que se quiere ver.
+ */
+final class RuntimeSampler implements AutoCloseable {
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "runtime-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long maxHeapUsed;
+    private volatile long heapUsedSum;
+    private volatile long samples;
+
+    RuntimeSampler(long intervalMillis) {
+        threads.resetPeakThreadCount();
+        scheduler.scheduleAtFixedRate(this::sample, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void sample() {
+        long used = memory.getHeapMemoryUsage().getUsed();
+        maxHeapUsed = Math.max(maxHeapUsed, used);
+        heapUsedSum += used;
+        samples++;
+    }
+
+    Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("virtualThreads", Boolean.getBoolean("load.app.spring.threads.virtual.enabled"));
+        summary.put("peakPlatformThreads", threads.getPeakThreadCount());
+        summary.put("liveThreadsAtEnd", threads.getThreadCount());
+        summary.put("maxHeapUsedMb", maxHeapUsed / (1024.0 * 1024.0));
+        summary.put("avgHeapUsedMb", samples == 0 ? 0.0 : heapUsedSum / (double) samples / (1024.0 * 1024.0));
+        summary.put("heapCommittedMb", memory.getHeapMemoryUsage().getCommitted() / (1024.0 * 1024.0));
+        return summary;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,131 @@
+package com.proyecto.auth.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * API de supervisores en proceso para las pruebas de carga: responde /supervisors y
+ * /supervisors/{id} con una latencia fija mas jitter y una tasa de errores 503 configurables.
+ */
+final class SupervisorsStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<UUID> ids;
+    private final Map<UUID, String> bodies;
+    private final String directory;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    SupervisorsStub(int supervisors, long latencyMillis, long jitterMillis, double errorRate) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+        List<UUID> generated = new ArrayList<>(supervisors);
+        for (int i = 0; i < supervisors; i++) {
+            generated.add(UUID.randomUUID());
+        }
+        this.ids = List.copyOf(generated);
+        this.bodies = ids.stream().collect(Collectors.toUnmodifiableMap(Function.identity(), SupervisorsStub::json));
+        this.directory = ids.stream().map(bodies::get).collect(Collectors.joining(",", "[", "]"));
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.executor = Executors.newCachedThreadPool();
+        this.server.setExecutor(executor);
+        this.server.createContext("/supervisors", this::handle);
+        this.server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    List<UUID> supervisorIds() {
+        return ids;
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            sleep();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/supervisors") || path.equals("/supervisors/")) {
+                respond(exchange, directory);
+                return;
+            }
+            String body;
+            try {
+                body = bodies.get(UUID.fromString(path.substring("/supervisors/".length())));
+            } catch (IllegalArgumentException ex) {
+                body = null;
+            }
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            respond(exchange, body);
+        }
+    }
+
+    private void sleep() {
+        long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String json(UUID id) {
+        String suffix = id.toString().substring(0, 8);
+        return "{\"id\":\"" + id + "\",\"name\":\"Supervisor " + suffix + "\",\"email\":\"sup-" + suffix + "@demo.com\"}";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,33 @@
+package com.proyecto.auth.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FlywayConfig {
+
+    // Las bases creadas antes de Flyway ya tienen el esquema de V1: se marcan como baseline
+    // y solo se aplican las migraciones posteriores.
+    @Bean
+    FlywayConfigurationCustomizer flywayBaselineCustomizer() {
+        return configuration -> configuration
+                .schemas("app")
+                .baselineOnMigrate(true)
+                .baselineVersion("1");
+    }
+
+    // Con spring.aot.enabled=true los beans de Flyway quedan fijados en processAot y
+    // spring.flyway.enabled=false al arrancar no los quita: se relee aqui para no migrar
+    // (arranque de entrenamiento CDS del Dockerfile, sin base).
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(@Value("${spring.flyway.enabled:true}") boolean enabled) {
+        return flyway -> {
+            if (enabled) {
+                flyway.migrate();
+            }
+        };
+    }
+}
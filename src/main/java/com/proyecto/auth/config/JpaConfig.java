@@ -0,0 +1,70 @@
+package com.proyecto.auth.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.time.Duration;
+import java.util.OptionalLong;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    // Inserciones en lote: los ids UUID se generan en memoria, asi que Hibernate puede
+    // agrupar los INSERT de users y team_members en batches JDBC
+    @Bean
+    HibernatePropertiesCustomizer jdbcBatchingCustomizer(@Value("${auth.jpa.batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.put("hibernate.jdbc.batch_size", batchSize);
+            properties.put("hibernate.order_inserts", true);
+            properties.put("hibernate.order_updates", true);
+        };
+    }
+
+    // Regiones acotadas en memoria local para User y TeamMember. Cada replica tiene su copia:
+    // los cambios hechos por otra replica se ven como mucho tras el TTL
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager(@Value("${auth.l2-cache.max-entries:50000}") long maxEntries,
+                                       @Value("${auth.l2-cache.ttl-seconds:60}") long ttlSeconds) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), JpaConfig.class.getClassLoader());
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        cacheManager.createCache("users", region(maxEntries, ttlNanos));
+        cacheManager.createCache("team-members", region(maxEntries, ttlNanos));
+        cacheManager.createCache(QUERY_RESULTS_REGION, region(maxEntries, ttlNanos));
+        // las marcas de actualizacion no pueden vencer antes que los resultados que invalidan
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, region(10_000, 0));
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", true);
+            properties.put("hibernate.cache.use_query_cache", true);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            // expone aciertos y fallos por region en hibernate.second.level.cache.requests
+            properties.put("hibernate.generate_statistics", true);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxEntries, long ttlNanos) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        if (ttlNanos > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttlNanos));
+        }
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,49 @@
+package com.proyecto.auth.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Timers con histograma publicado: requests HTTP, fases propias (auth.*) y la espera por
+    // una conexion de Hikari. El resto de timers queda solo con count/sum/max
+    private static final List<String> HISTOGRAM_PREFIXES = List.of(
+            "auth.",
+            "http.server.requests",
+            "hikaricp.connections.acquire");
+
+    // Buckets entre 1 ms y 10 s: cubren desde un acierto de cache hasta un timeout de hashing
+    // sin publicar los ~70 buckets del rango completo por serie
+    @Bean
+    MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER || !histogrammed(id.getName())) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(10).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+
+    private static boolean histogrammed(String name) {
+        for (String prefix : HISTOGRAM_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
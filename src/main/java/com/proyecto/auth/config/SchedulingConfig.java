@@ -0,0 +1,23 @@
+package com.proyecto.auth.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Con el perfil lazy los beans con tareas programadas se crean igual al arrancar: si no,
+    // las purgas y refrescos no corren hasta que un request los necesita
+    @Bean
+    static LazyInitializationExcludeFilter scheduledBeansExcludedFromLazyInit() {
+        return (beanName, definition, type) -> type != null && !MethodIntrospector.selectMethods(type,
+                (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                        AnnotatedElementUtils.hasAnnotation(method, Scheduled.class) ? Boolean.TRUE : null).isEmpty();
+    }
+}
@@ -1,13 +1,18 @@
 package com.proyecto.auth.config;
 
+import com.proyecto.auth.service.TokenAuthenticationService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.*;
 
 import java.util.List;
@@ -16,17 +21,34 @@ import java.util.List;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Mientras los consumidores no envien el token, las rutas siguen abiertas; con
+    // auth.security.enforce=true se exige token y rol ADMIN para la administracion de usuarios.
+    @Value("${auth.security.enforce:false}")
+    private boolean enforce;
+
     @Bean
-    SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain filterChain(HttpSecurity http, TokenAuthenticationService tokenAuthenticationService) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .cors(Customizer.withDefaults())
             .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-            .authorizeHttpRequests(auth -> auth
-                .requestMatchers(HttpMethod.POST, "/auth/login", "/auth/register").permitAll()
-                .requestMatchers(HttpMethod.GET, "/health", "/actuator/health").permitAll()
-                .anyRequest().permitAll()
-            )
+            .addFilterBefore(new JwtAuthenticationFilter(tokenAuthenticationService), UsernamePasswordAuthenticationFilter.class)
+            .authorizeHttpRequests(auth -> {
+                auth
+                    .requestMatchers(HttpMethod.POST, "/auth/login", "/auth/register", "/auth/refresh").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/health", "/actuator/health", "/.well-known/jwks.json").permitAll()
+                    // el scraper de Prometheus no lleva token; solo expone contadores y latencias
+                    .requestMatchers(HttpMethod.GET, "/actuator/prometheus").permitAll();
+                if (enforce) {
+                    auth
+                        .requestMatchers("/auth/users/**").hasRole("ADMIN")
+                        .requestMatchers("/auth/register/batch").hasRole("ADMIN")
+                        .anyRequest().authenticated();
+                } else {
+                    auth.anyRequest().permitAll();
+                }
+            })
+            .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             .httpBasic(b -> b.disable())
             .formLogin(f -> f.disable());
         return http.build();
@@ -38,10 +60,11 @@ public class SecurityConfig {
         cfg.setAllowedOriginPatterns(List.of("*"));
         cfg.setAllowedMethods(List.of("GET","POST","PUT","DELETE","OPTIONS"));
         cfg.setAllowedHeaders(List.of("*"));
+        cfg.setExposedHeaders(List.of("X-Next-Cursor", "X-Feed-Cursor", "ETag"));
         cfg.setAllowCredentials(false);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", cfg);
         return source;
     }
-}
\ No newline at end of file
+}
@@ -4,22 +4,54 @@ import com.proyecto.auth.model.TeamMember;
 import com.proyecto.auth.model.User;
 import com.proyecto.auth.repo.TeamMemberRepository;
 import com.proyecto.auth.repo.UserRepository;
+import com.proyecto.auth.service.AuthenticatedUser;
+import com.proyecto.auth.service.HashingSaturatedException;
+import com.proyecto.auth.service.JwtService;
+import com.proyecto.auth.service.LoginThrottle;
+import com.proyecto.auth.service.LoginVerificationCache;
 import com.proyecto.auth.service.PasswordService;
+import com.proyecto.auth.service.PasswordUpgradeService;
+import com.proyecto.auth.service.RefreshTokenService;
+import com.proyecto.auth.service.RequestPhaseTimers;
 import com.proyecto.auth.service.SupervisorInfo;
 import com.proyecto.auth.service.SupervisorsClient;
+import com.proyecto.auth.service.TokenRevocationService;
+import com.proyecto.auth.service.UnknownEmailCache;
+import com.proyecto.auth.service.UserEventService;
+import com.proyecto.auth.service.UserExportService;
+import com.proyecto.auth.service.UserProvisioningService;
+import com.proyecto.auth.service.UserProvisioningService.RowResult;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
+import com.proyecto.auth.web.RegisterRequest;
+import com.proyecto.auth.web.UserPage;
 import com.proyecto.auth.web.UserResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +63,14 @@ public class AuthController {
 
     private static final Logger log = LoggerFactory.getLogger(AuthController.class);
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String FEED_CURSOR_HEADER = "X-Feed-Cursor";
+    private static final String NDJSON = "application/x-ndjson";
+    // El directorio cambia seguido: se revalida siempre, pero la revalidacion es un 304 barato
+    private static final CacheControl DIRECTORY_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     // ---------- DTOs ----------
     private record LoginRequest(@Email String email, @NotBlank String password) {
 
@@ -40,7 +80,12 @@ public class AuthController {
 
     }
 
-    public record RegisterRequest(String email, String password, String name, String role, UUID supervisorId) {
+    private record SessionResponse(UUID id, String email, String name, String role, UUID supervisorId,
+                                   String accessToken, String tokenType, long expiresIn, String refreshToken) {
+
+    }
+
+    record RefreshRequest(@NotBlank String refreshToken) {
 
     }
 
@@ -48,33 +93,145 @@ public class AuthController {
 
     }
 
+    private record BatchResult(int created, int failed, List<RowResult> results) {
+
+    }
+
     // ---------- Dependencias ----------
     private final UserRepository repo;
     private final PasswordService passwordService;
+    private final PasswordUpgradeService passwordUpgradeService;
+    private final LoginVerificationCache loginVerificationCache;
+    private final LoginThrottle loginThrottle;
+    private final UnknownEmailCache unknownEmailCache;
     private final TeamMemberRepository teamMemberRepository;
     private final SupervisorsClient supervisorsClient;
+    private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserExportService userExportService;
+    private final UserEventService userEventService;
+    private final UserProvisioningService userProvisioningService;
+    private final RequestPhaseTimers phaseTimers;
+    private final ObjectMapper objectMapper;
+    private final int batchMaxSize;
 
     public AuthController(UserRepository repo,
                           PasswordService passwordService,
+                          PasswordUpgradeService passwordUpgradeService,
+                          LoginVerificationCache loginVerificationCache,
+                          LoginThrottle loginThrottle,
+                          UnknownEmailCache unknownEmailCache,
                           TeamMemberRepository teamMemberRepository,
-                          SupervisorsClient supervisorsClient) {
+                          SupervisorsClient supervisorsClient,
+                          JwtService jwtService,
+                          RefreshTokenService refreshTokenService,
+                          TokenRevocationService tokenRevocationService,
+                          UserExportService userExportService,
+                          UserEventService userEventService,
+                          UserProvisioningService userProvisioningService,
+                          RequestPhaseTimers phaseTimers,
+                          ObjectMapper objectMapper,
+                          @Value("${auth.register.batch-max-size:1000}") int batchMaxSize) {
         this.repo = repo;
         this.passwordService = passwordService;
+        this.passwordUpgradeService = passwordUpgradeService;
+        this.loginVerificationCache = loginVerificationCache;
+        this.loginThrottle = loginThrottle;
+        this.unknownEmailCache = unknownEmailCache;
         this.teamMemberRepository = teamMemberRepository;
         this.supervisorsClient = supervisorsClient;
+        this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userExportService = userExportService;
+        this.userEventService = userEventService;
+        this.userProvisioningService = userProvisioningService;
+        this.phaseTimers = phaseTimers;
+        this.objectMapper = objectMapper;
+        this.batchMaxSize = batchMaxSize;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest req) {
-        var user = repo.findByEmail(req.email()).orElse(null);
+    public ResponseEntity<?> login(@RequestBody LoginRequest req, HttpServletRequest request) {
+        // antes de cualquier consulta o hash: un ataque de fuerza bruta no puede gastar CPU en BCrypt.
+        // Con server.forward-headers-strategy=native la direccion ya viene del proxy de confianza
+        String clientIp = request.getRemoteAddr();
+        long retryAfter = loginThrottle.check(clientIp, req.email());
+        if (retryAfter > 0) {
+            return tooManyAttempts(retryAfter);
+        }
+        // solo un 401 se queda con los tokens: un error de base o de hashing no cuenta como intento
+        boolean rejected = false;
+        try {
+            ResponseEntity<?> response = authenticate(req);
+            rejected = response.getStatusCode().isSameCodeAs(HttpStatus.UNAUTHORIZED);
+            return response;
+        } finally {
+            if (rejected) {
+                loginThrottle.recordFailure();
+            } else {
+                loginThrottle.refund(clientIp, req.email());
+            }
+        }
+    }
+
+    private ResponseEntity<?> authenticate(LoginRequest req) {
+        if (unknownEmailCache.isUnknown(req.email())) {
+            return unknownAccount(req);
+        }
+        var user = phaseTimers.login("lookup", () -> repo.findByEmail(req.email())).orElse(null);
+        if (user == null) {
+            unknownEmailCache.remember(req.email());
+            return unknownAccount(req);
+        }
+        if (!loginVerificationCache.isVerified(user, req.password())) {
+            try {
+                boolean matches = phaseTimers.login("verify", () -> passwordService.matches(req.password(), user.getPasswordHash()));
+                if (!matches) {
+                    return ResponseEntity.status(401).body(new ErrorResponse("Invalid credentials"));
+                }
+            } catch (HashingSaturatedException ex) {
+                return hashingSaturated(ex);
+            }
+            loginVerificationCache.put(user, req.password());
+            passwordUpgradeService.upgradeIfNeeded(user, req.password());
+        }
+        return ResponseEntity.ok(session(user, refreshTokenService.issue(user.getId())));
+    }
+
+    // Rotacion del refresh token: sin password ni BCrypt, una busqueda por hash indexado
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshRequest req) {
+        if (req.refreshToken() == null || req.refreshToken().isBlank()) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("Missing fields"));
+        }
+        var rotation = refreshTokenService.rotate(req.refreshToken()).orElse(null);
+        if (rotation == null) {
+            return ResponseEntity.status(401).body(new ErrorResponse("Invalid refresh token"));
+        }
+        // de la base y no de la cache: el rol pudo cambiar en otra replica (ver findByEmail)
+        var user = repo.findCurrentById(rotation.userId()).orElse(null);
         if (user == null) {
-            return ResponseEntity.status(401).body(new ErrorResponse("Invalid credentials"));
+            return ResponseEntity.status(401).body(new ErrorResponse("Invalid refresh token"));
+        }
+        return ResponseEntity.ok(session(user, rotation.next()));
+    }
+
+    // Revoca el access token presentado y, si se envia, la familia del refresh token
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@AuthenticationPrincipal AuthenticatedUser caller,
+                                       @RequestBody(required = false) RefreshRequest req) {
+        if (caller == null) {
+            return ResponseEntity.status(401).build();
         }
-        if (!passwordService.matches(req.password(), user.getPasswordHash())) {
-            return ResponseEntity.status(401).body(new ErrorResponse("Invalid credentials"));
+        if (caller.tokenId() != null) {
+            tokenRevocationService.revokeToken(caller.tokenId(), caller.expiresAt());
         }
-        // Sin token: regresamos datos necesarios para el portal (email/name/role)
-        return ResponseEntity.ok(new LoginResponse(user.getId(), user.getEmail(), user.getName(), user.getRole().name()));
+        if (req != null && req.refreshToken() != null && !req.refreshToken().isBlank()) {
+            refreshTokenService.revoke(req.refreshToken());
+        }
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/register")
@@ -105,7 +262,7 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(new ErrorResponse("Supervisor required for TECNICO role"));
             }
             try {
-                var supervisorOpt = supervisorsClient.fetchById(supervisorId);
+                var supervisorOpt = phaseTimers.register("supervisor", () -> supervisorsClient.fetchById(req.supervisorId()));
                 if (supervisorOpt.isEmpty()) {
                     return ResponseEntity.badRequest().body(new ErrorResponse("Supervisor not found"));
                 }
@@ -115,53 +272,133 @@ public class AuthController {
             }
         }
         u.setRole(role);
-        u.setPasswordHash(passwordService.encode(req.password()));
-
-        var saved = repo.save(u);
-
-        if (role == User.Role.TECNICO) {
-            teamMemberRepository.save(new TeamMember(supervisorId, saved.getId()));
+        try {
+            u.setPasswordHash(phaseTimers.register("hash", () -> passwordService.encode(req.password())));
+        } catch (HashingSaturatedException ex) {
+            return hashingSaturated(ex);
         }
 
+        // con flush para que la fase "insert" mida los INSERT y no solo el paso por el contexto. El
+        // lock del feed va antes del flush, que dispara el trigger de directory_version
+        UUID teamId = supervisorId;
+        var saved = phaseTimers.register("insert", () -> {
+            userEventService.lockFeed();
+            User inserted = repo.saveAndFlush(u);
+            if (inserted.getRole() == User.Role.TECNICO) {
+                teamMemberRepository.saveAndFlush(new TeamMember(teamId, inserted.getId()));
+            }
+            userEventService.publish(UserEventService.Type.CREATED, inserted, teamId);
+            return inserted;
+        });
+        unknownEmailCache.forget(List.of(saved.getEmail()));
+
         return ResponseEntity.ok(new LoginResponse(saved.getId(), saved.getEmail(), saved.getName(), saved.getRole().name()));
     }
 
+    // Alta masiva: una fila invalida no aborta el lote, cada una trae su propio resultado
+    @PostMapping(value = "/register/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> registerBatch(@RequestBody List<RegisterRequest> requests) {
+        return provision(requests);
+    }
+
+    @PostMapping(value = "/register/batch", consumes = NDJSON)
+    public ResponseEntity<?> registerBatchNdjson(@RequestBody String body) {
+        List<RegisterRequest> requests = new ArrayList<>();
+        int line = 0;
+        for (String row : body.split("\\R")) {
+            line++;
+            if (row.isBlank()) {
+                continue;
+            }
+            try {
+                requests.add(objectMapper.readValue(row, RegisterRequest.class));
+            } catch (JsonProcessingException e) {
+                return ResponseEntity.badRequest().body(new ErrorResponse("Invalid JSON at line " + line));
+            }
+        }
+        return provision(requests);
+    }
+
+    // Paginacion por cursor (email del ultimo elemento) con filtros opcionales.
+    // El cursor de la siguiente pagina viaja en el header X-Next-Cursor.
     @GetMapping("/users")
-    public ResponseEntity<List<UserResponse>> listUsers() {
-        Map<UUID, UUID> supervisorByUser = teamMemberRepository.findAll().stream()
-                .collect(Collectors.toMap(
-                        TeamMember::getUserId,
-                        TeamMember::getTeamId,
-                        (existing, replacement) -> existing
-                ));
-        var users = repo.findAll().stream()
-                .map(u -> {
-                    UUID supervisorId = supervisorByUser.get(u.getId());
-                    return new UserResponse(
-                            u.getId(),
-                            u.getName(),
-                            u.getEmail(),
-                            u.getRole().name(),
-                            supervisorId,
-                            supervisorId
-                    );
-                })
-                .toList();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> listUsers(@RequestParam(required = false) String cursor,
+                                       @RequestParam(required = false) String role,
+                                       @RequestParam(required = false) UUID supervisorId,
+                                       @RequestParam(required = false) String emailPrefix,
+                                       @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                       WebRequest request) {
+        User.Role roleFilter = null;
+        if (role != null && !role.isBlank()) {
+            try {
+                roleFilter = User.Role.valueOf(role.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(new ErrorResponse("Invalid role"));
+            }
+        }
+        String afterEmail;
+        try {
+            afterEmail = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("Invalid cursor"));
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String prefix = emailPrefix == null || emailPrefix.isBlank() ? null : emailPrefix.trim().toLowerCase();
+
+        // La version se lee antes que los datos: si cambia entre medio, el ETag queda viejo y la
+        // proxima revalidacion trae la pagina otra vez (nunca al reves)
+        String etag = "\"d" + repo.directoryVersion() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(DIRECTORY_CACHE_CONTROL).build();
+        }
+        var page = UserPage.from(repo.findPage(roleFilter, supervisorId, prefix, afterEmail, pageSize + 1), pageSize);
+        List<UserResponse> users = page.users();
+
+        var response = ResponseEntity.ok().eTag(etag).cacheControl(DIRECTORY_CACHE_CONTROL);
+        if (page.hasMore() && !users.isEmpty()) {
+            response.header(NEXT_CURSOR_HEADER, encodeCursor(users.get(users.size() - 1).email()));
+        }
+        return response.body(users);
+    }
+
+    // Export como NDJSON, una fila por linea, escrito mientras se lee de la base. Es una foto del
+    // directorio: X-Feed-Cursor es el cursor de /users/events desde el que seguir los cambios
+    // (incluidas las bajas). El cursor se toma antes de la foto, asi que los primeros eventos
+    // pueden repetir algo que ya viene en el export; aplicarlos de nuevo no cambia el resultado.
+    // updatedSince se compara con el reloj de la aplicacion y no ve bajas: solo sirve como
+    // aproximacion, restando una ventana de solape al updatedAt maximo ya recibido.
+    @GetMapping(value = "/users/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime updatedSince) {
+        long feedCursor = userEventService.currentCursor();
+        StreamingResponseBody body = out -> userExportService.export(updatedSince, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .header(FEED_CURSOR_HEADER, String.valueOf(feedCursor))
+                .body(body);
     }
 
     // Eliminar usuario por id
     @DeleteMapping("/users/{id}")
+    @Transactional
     public ResponseEntity<Void> deleteUser(@PathVariable java.util.UUID id) {
-        if (!repo.existsById(id)) {
+        var user = repo.findById(id).orElse(null);
+        if (user == null) {
             return ResponseEntity.notFound().build();
         }
-        repo.deleteById(id);
+        // antes de cualquier flush que llegue al trigger de directory_version (ver lockFeed)
+        userEventService.lockFeed();
+        repo.delete(user);
+        userEventService.publish(UserEventService.Type.DELETED, user, null);
+        loginVerificationCache.invalidate(id);
+        refreshTokenService.revokeAll(id);
+        tokenRevocationService.revokeUser(id);
         return ResponseEntity.noContent().build();
     }
 
     // Cambiar rol de usuario por id
     @PutMapping("/users/{id}/role")
+    @Transactional
     public ResponseEntity<?> changeUserRole(@PathVariable java.util.UUID id, @RequestParam String role) {
         var userOpt = repo.findById(id);
         if (userOpt.isEmpty()) {
@@ -173,18 +410,16 @@ public class AuthController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(new ErrorResponse("Invalid role"));
         }
+        userEventService.lockFeed();
         repo.save(user);
+        loginVerificationCache.invalidate(id);
+        // los tokens vigentes llevan el rol anterior
+        tokenRevocationService.revokeUser(id);
         UUID supervisorId = teamMemberRepository.findFirstByIdUserId(user.getId())
                 .map(TeamMember::getTeamId)
                 .orElse(null);
-        return ResponseEntity.ok(new UserResponse(
-                user.getId(),
-                user.getName(),
-                user.getEmail(),
-                user.getRole().name(),
-                supervisorId,
-                supervisorId
-        ));
+        userEventService.publish(UserEventService.Type.UPDATED, user, supervisorId);
+        return ResponseEntity.ok(UserResponse.from(user, supervisorId));
     }
 
     @GetMapping("/supervisors")
@@ -197,4 +432,79 @@ public class AuthController {
             return ResponseEntity.status(503).body(new ErrorResponse("No se pudieron obtener los supervisores"));
         }
     }
+
+    // El token lleva rol y supervisor para que los demas servicios no consulten /users/{id}.
+    // user viene de la base; el equipo tambien se lee sin cache
+    private SessionResponse session(User user, RefreshTokenService.IssuedToken refreshToken) {
+        UUID supervisorId = user.getRole() == User.Role.TECNICO
+                ? teamMemberRepository.findCurrentTeamIds(user.getId()).stream().findFirst().orElse(null)
+                : null;
+        return new SessionResponse(
+                user.getId(),
+                user.getEmail(),
+                user.getName(),
+                user.getRole().name(),
+                supervisorId,
+                jwtService.generate(user, supervisorId),
+                "Bearer",
+                jwtService.getExpirationSeconds(),
+                refreshToken.value()
+        );
+    }
+
+    private ResponseEntity<?> provision(List<RegisterRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return ResponseEntity.badRequest().body(new ErrorResponse("Empty batch"));
+        }
+        if (requests.size() > batchMaxSize) {
+            return ResponseEntity.status(413).body(new ErrorResponse("Batch exceeds " + batchMaxSize + " rows"));
+        }
+        List<RowResult> results;
+        try {
+            results = userProvisioningService.provision(requests);
+        } catch (HashingSaturatedException ex) {
+            return hashingSaturated(ex);
+        } catch (DataIntegrityViolationException ex) {
+            // el servicio ya reintento sin los emails tomados por otra alta; esto es un segundo conflicto
+            log.warn("Batch registration conflict: {}", ex.getMostSpecificCause().getMessage());
+            return ResponseEntity.status(409).body(new ErrorResponse("Email already registered"));
+        }
+        int created = (int) results.stream().filter(r -> r.id() != null).count();
+        return ResponseEntity.ok(new BatchResult(created, results.size() - created, results));
+    }
+
+    private static String encodeCursor(String email) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(email.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    // Cuenta inexistente: se paga el mismo BCrypt que con una cuenta real para no revelar
+    // por latencia que email existe
+    private ResponseEntity<?> unknownAccount(LoginRequest req) {
+        try {
+            phaseTimers.login("verify", () -> passwordService.verifyDummy(req.password()));
+        } catch (HashingSaturatedException ex) {
+            return hashingSaturated(ex);
+        }
+        return ResponseEntity.status(401).body(new ErrorResponse("Invalid credentials"));
+    }
+
+    private ResponseEntity<ErrorResponse> hashingSaturated(HashingSaturatedException ex) {
+        log.warn("Rejecting request, password hashing saturated: {}", ex.getMessage());
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse("Servicio de autenticacion saturado, intenta de nuevo"));
+    }
+
+    private ResponseEntity<ErrorResponse> tooManyAttempts(long retryAfterSeconds) {
+        return ResponseEntity.status(429)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new ErrorResponse("Demasiados intentos de login, intenta de nuevo mas tarde"));
+    }
 }
@@ -0,0 +1,34 @@
+package com.proyecto.auth.controller;
+
+import com.proyecto.auth.service.JwtKeyRing;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtKeyRing keyRing,
+                          @Value("${jwt.jwks.max-age-seconds:300}") long maxAgeSeconds) {
+        this.keyRing = keyRing;
+        this.cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+    }
+
+    // Los demas servicios validan los tokens localmente con estas claves.
+    // Con ETag, una revalidacion sin cambios responde 304 sin cuerpo.
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        JwtKeyRing.JwksDocument document = keyRing.jwks();
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(document.etag())
+                .body(document.json());
+    }
+}
@@ -0,0 +1,49 @@
+package com.proyecto.auth.model;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "refresh_tokens", schema = "app")
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "rotated_at")
+    private Instant rotatedAt;
+
+    public UUID getId() { return id; }
+    public UUID getUserId() { return userId; }
+    public UUID getFamilyId() { return familyId; }
+    public String getTokenHash() { return tokenHash; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public Instant getRotatedAt() { return rotatedAt; }
+
+    public void setId(UUID id) { this.id = id; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    public void setFamilyId(UUID familyId) { this.familyId = familyId; }
+    public void setTokenHash(String tokenHash) { this.tokenHash = tokenHash; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+    public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
+    public void setRotatedAt(Instant rotatedAt) { this.rotatedAt = rotatedAt; }
+}
@@ -1,17 +1,30 @@
 package com.proyecto.auth.model;
 
 import java.util.UUID;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.domain.Persistable;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team-members")
 @Table(name = "team_members", schema = "app")
-public class TeamMember {
+public class TeamMember implements Persistable<TeamMemberId> {
 
     @EmbeddedId
     private TeamMemberId id;
 
+    // El id se asigna a mano: sin esto save() haria merge (SELECT previo) en cada insercion
+    @Transient
+    private boolean persisted;
+
     public TeamMember() {
     }
 
@@ -23,10 +36,22 @@ public class TeamMember {
         this.id = new TeamMemberId(teamId, userId);
     }
 
+    @Override
     public TeamMemberId getId() {
         return id;
     }
 
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
     public void setId(TeamMemberId id) {
         this.id = id;
     }
@@ -0,0 +1,43 @@
+package com.proyecto.auth.model;
+
+import java.time.Instant;
+import java.util.UUID;
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "token_revocations", schema = "app")
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "jti", length = 64)
+    private String jti;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "not_before")
+    private Instant notBefore;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private Instant createdAt;
+
+    public Long getId() { return id; }
+    public String getJti() { return jti; }
+    public UUID getUserId() { return userId; }
+    public Instant getNotBefore() { return notBefore; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public Instant getCreatedAt() { return createdAt; }
+
+    public void setId(Long id) { this.id = id; }
+    public void setJti(String jti) { this.jti = jti; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    public void setNotBefore(Instant notBefore) { this.notBefore = notBefore; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -3,8 +3,12 @@ package com.proyecto.auth.model;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users", schema = "app")
 public class User {
 
@@ -30,12 +34,28 @@ public class User {
     @Column(name = "created_at", insertable = false, updatable = false)
     private OffsetDateTime createdAt;
 
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    // Control optimista y ETag de /users/{id}
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = OffsetDateTime.now();
+    }
+
     public UUID getId() { return id; }
     public String getEmail() { return email; }
     public String getPasswordHash() { return passwordHash; }
     public Role getRole() { return role; }
     public String getName() { return name; }
     public OffsetDateTime getCreatedAt() { return createdAt; }
+    public OffsetDateTime getUpdatedAt() { return updatedAt; }
+    public long getVersion() { return version; }
 
     public void setId(UUID id) { this.id = id; }
     public void setEmail(String email) { this.email = email; }
@@ -43,4 +63,5 @@ public class User {
     public void setRole(Role role) { this.role = role; }
     public void setName(String name) { this.name = name; }
     public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
+    public void setUpdatedAt(OffsetDateTime updatedAt) { this.updatedAt = updatedAt; }
 }
\ No newline at end of file
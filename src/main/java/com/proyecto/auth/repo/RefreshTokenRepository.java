@@ -0,0 +1,44 @@
+package com.proyecto.auth.repo;
+
+import com.proyecto.auth.model.RefreshToken;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("update RefreshToken t set t.rotatedAt = :rotatedAt where t.id = :id and t.rotatedAt is null")
+    int markRotated(@Param("id") UUID id, @Param("rotatedAt") Instant rotatedAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.familyId = :familyId")
+    int deleteFamily(@Param("familyId") UUID familyId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.userId = :userId")
+    int deleteByUser(@Param("userId") UUID userId);
+
+    // Sin query spaces un DELETE nativo vacia todas las regiones de la cache de segundo nivel y
+    // la de consultas; declarando la tabla solo se invalida lo que depende de ella
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = "app.refresh_tokens"))
+    @Query(value = """
+            DELETE FROM app.refresh_tokens
+            WHERE id IN (SELECT id FROM app.refresh_tokens WHERE expires_at < now() LIMIT :batchSize)
+            """, nativeQuery = true)
+    int purgeExpired(@Param("batchSize") int batchSize);
+}
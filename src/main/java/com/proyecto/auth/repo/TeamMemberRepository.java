@@ -2,11 +2,23 @@ package com.proyecto.auth.repo;
 
 import com.proyecto.auth.model.TeamMember;
 import com.proyecto.auth.model.TeamMemberId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface TeamMemberRepository extends JpaRepository<TeamMember, TeamMemberId> {
+    // Se consulta en cada login y listado de un tecnico: resultado en la cache de consultas
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<TeamMember> findFirstByIdUserId(UUID userId);
+
+    // Para firmar tokens: consulta escalar, sin cache de consultas ni de entidades
+    @Query("select m.id.teamId from TeamMember m where m.id.userId = :userId")
+    List<UUID> findCurrentTeamIds(@Param("userId") UUID userId);
 }
@@ -0,0 +1,31 @@
+package com.proyecto.auth.repo;
+
+import com.proyecto.auth.model.TokenRevocation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    List<TokenRevocation> findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(Long cursor, Instant now, Limit limit);
+
+    List<TokenRevocation> findByCreatedAtAfterAndExpiresAtAfter(Instant createdAfter, Instant now);
+
+    // La tabla declarada evita que Hibernate vacie toda la cache (ver RefreshTokenRepository.purgeExpired)
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = "app.token_revocations"))
+    @Query(value = """
+            DELETE FROM app.token_revocations
+            WHERE id IN (SELECT id FROM app.token_revocations WHERE expires_at < now() LIMIT :batchSize)
+            """, nativeQuery = true)
+    int purgeExpired(@Param("batchSize") int batchSize);
+}
@@ -0,0 +1,13 @@
+package com.proyecto.auth.repo;
+
+import com.proyecto.auth.model.User;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface UserDirectoryRepository {
+    List<UserSummary> findPage(User.Role role, UUID supervisorId, String emailPrefix, String afterEmail, int limit);
+
+    // Existencia resuelta desde la cache de segundo nivel o la de consultas, sin hidratar la entidad
+    boolean existsCached(UUID id);
+}
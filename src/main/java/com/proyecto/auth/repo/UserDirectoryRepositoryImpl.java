@@ -0,0 +1,69 @@
+package com.proyecto.auth.repo;
+
+import com.proyecto.auth.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.AvailableHints;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+class UserDirectoryRepositoryImpl implements UserDirectoryRepository {
+
+    private final EntityManager em;
+
+    UserDirectoryRepositoryImpl(EntityManager em) {
+        this.em = em;
+    }
+
+    @Override
+    public boolean existsCached(UUID id) {
+        if (em.getEntityManagerFactory().getCache().contains(User.class, id)) {
+            return true;
+        }
+        // el resultado (incluido "no existe") queda en la cache de consultas hasta el proximo
+        // cambio en app.users
+        return em.createQuery("select count(u) > 0 from User u where u.id = :id", Boolean.class)
+                .setParameter("id", id)
+                .setHint(AvailableHints.HINT_CACHEABLE, true)
+                .getSingleResult();
+    }
+
+    // Keyset sobre email (unico y guardado en minusculas): cada pagina es un range scan
+    // del indice, sin OFFSET. Solo se agregan al WHERE los filtros presentes.
+    @Override
+    public List<UserSummary> findPage(User.Role role, UUID supervisorId, String emailPrefix, String afterEmail, int limit) {
+        StringBuilder jpql = new StringBuilder("""
+                select new com.proyecto.auth.repo.UserSummary(u.id, u.name, u.email, u.role, tm.id.teamId)
+                from User u left join TeamMember tm on tm.id.userId = u.id
+                where 1 = 1""");
+        Map<String, Object> params = new HashMap<>();
+        if (role != null) {
+            jpql.append(" and u.role = :role");
+            params.put("role", role);
+        }
+        if (supervisorId != null) {
+            jpql.append(" and tm.id.teamId = :supervisorId");
+            params.put("supervisorId", supervisorId);
+        }
+        if (emailPrefix != null) {
+            jpql.append(" and u.email like :emailPrefix escape '!'");
+            params.put("emailPrefix", escapeLike(emailPrefix) + "%");
+        }
+        if (afterEmail != null) {
+            jpql.append(" and u.email > :afterEmail");
+            params.put("afterEmail", afterEmail);
+        }
+        jpql.append(" order by u.email, tm.id.teamId");
+
+        TypedQuery<UserSummary> query = em.createQuery(jpql.toString(), UserSummary.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -1,12 +1,51 @@
 package com.proyecto.auth.repo;
 
 import com.proyecto.auth.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface UserRepository extends JpaRepository<User, UUID> {
-    boolean existsByEmail(String email);
-    Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+public interface UserRepository extends JpaRepository<User, UUID>, UserDirectoryRepository {
+    // Las busquedas por email comparan lower(email) para usar el indice unico users_email_lower_uq
+    @Query("select count(u) > 0 from User u where lower(u.email) = lower(:email)")
+    boolean existsByEmail(@Param("email") String email);
+
+    // Login y refresh firman tokens con el rol leido: siempre de la base, nunca de la cache de
+    // segundo nivel, que en otra replica puede tener el rol anterior hasta el TTL. La fila leida
+    // reemplaza la entrada de esta replica.
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"),
+            @QueryHint(name = AvailableHints.HINT_SPEC_CACHE_STORE_MODE, value = "REFRESH")})
+    @Query("select u from User u where lower(u.email) = lower(:email)")
+    Optional<User> findByEmail(@Param("email") String email);
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"),
+            @QueryHint(name = AvailableHints.HINT_SPEC_CACHE_STORE_MODE, value = "REFRESH")})
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findCurrentById(@Param("id") UUID id);
+
+    /** Emails ya registrados de entre {@code emails}, que deben venir en minusculas. */
+    @Query("select lower(u.email) from User u where lower(u.email) in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Permiten responder 304 a un If-None-Match sin hidratar entidades
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    /** Costo mas comun entre los hashes BCrypt guardados sin prefijo {bcrypt}, aun sin migrar. */
+    @Query(value = "select cast(substring(password_hash from 5 for 2) as integer) from app.users "
+            + "where password_hash like '$2_$%' group by 1 order by count(*) desc limit 1", nativeQuery = true)
+    Optional<Integer> findPrevalentLegacyBcryptCost();
+
+    @Query(value = "select version from app.directory_version where id = 1", nativeQuery = true)
+    long directoryVersion();
+}
@@ -0,0 +1,8 @@
+package com.proyecto.auth.repo;
+
+import com.proyecto.auth.model.User;
+import java.util.UUID;
+
+/** Proyeccion de solo lectura para listados: no se hidratan entidades administradas. */
+public record UserSummary(UUID id, String name, String email, User.Role role, UUID supervisorId) {
+}
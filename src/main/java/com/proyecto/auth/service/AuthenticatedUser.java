@@ -0,0 +1,17 @@
+package com.proyecto.auth.service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/** Principal construido solo con los claims del token; no requiere consultar la base. */
+public record AuthenticatedUser(
+        UUID id,
+        String email,
+        String name,
+        String role,
+        UUID supervisorId,
+        String tokenId,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+}
@@ -0,0 +1,153 @@
+package com.proyecto.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool acotado para el trabajo de BCrypt. Los hilos de Tomcat solo esperan el resultado;
+ * cuando la cola esta llena se rechaza de inmediato en vez de acumular peticiones.
+ *
+ * <p>Los hilos son de plataforma a proposito: con {@code spring.threads.virtual.enabled} los
+ * requests corren en hilos virtuales que se desmontan mientras esperan aqui, y el calculo de
+ * BCrypt nunca ocupa los carriers que comparten todos los requests. En la imagen Docker (AOT) el
+ * modo se elige al construirla, con el build arg {@code VIRTUAL_THREADS}.
+ */
+@Component
+public class HashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+    private final Timer waitTimer;
+    private final Timer hashTimer;
+    private final Counter rejectedCounter;
+
+    public HashingExecutor(MeterRegistry registry,
+                           @Value("${auth.hashing.threads:0}") int threads,
+                           @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                           @Value("${auth.hashing.timeout-ms:5000}") long timeoutMillis,
+                           @Value("${auth.hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        Gauge.builder("auth.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Tareas de hashing esperando un hilo libre")
+                .register(registry);
+        // depth / (depth + remaining) es la saturacion: en 1 empiezan los 503
+        Gauge.builder("auth.hashing.queue.remaining", executor, e -> e.getQueue().remainingCapacity())
+                .description("Huecos libres en la cola de hashing antes de rechazar")
+                .register(registry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hilos de hashing ocupados")
+                .register(registry);
+        this.waitTimer = Timer.builder("auth.hashing.wait")
+                .description("Tiempo en cola antes de empezar a hashear")
+                .register(registry);
+        this.hashTimer = Timer.builder("auth.hashing.duration")
+                .description("Tiempo de CPU dedicado a cada operacion de hashing")
+                .register(registry);
+        this.rejectedCounter = Counter.builder("auth.hashing.rejected")
+                .description("Operaciones rechazadas por cola llena o timeout")
+                .register(registry);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    // el llamador ya se rindio (timeout); no gastamos CPU en un resultado que nadie espera
+                    return;
+                }
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    future.complete(task.get());
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            throw new HashingSaturatedException("Hashing queue is full", retryAfterSeconds);
+        }
+        return future;
+    }
+
+    public <T> T call(Supplier<T> task) {
+        return awaitAll(List.of(submit(task))).get(0);
+    }
+
+    /**
+     * Espera varias tareas ya enviadas con el mismo timeout que {@link #call}. Si alguna falla o
+     * se agota el tiempo cancela el resto: las que aun no empezaron ya no ocupan el pool.
+     */
+    public <T> List<T> awaitAll(List<CompletableFuture<T>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            cancelAll(futures);
+            rejectedCounter.increment();
+            throw new HashingSaturatedException("Timed out waiting for password hashing", retryAfterSeconds);
+        } catch (InterruptedException ex) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", ex);
+        } catch (ExecutionException ex) {
+            cancelAll(futures);
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    public static void cancelAll(List<? extends CompletableFuture<?>> futures) {
+        futures.forEach(future -> future.cancel(false));
+    }
+
+    public int parallelism() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.proyecto.auth.service;
+
+public class HashingSaturatedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public HashingSaturatedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,293 @@
+package com.proyecto.auth.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Claves asimetricas para firmar los JWT y el documento JWKS que publican.
+ *
+ * <p>Con {@code jwt.keystore.location} se cargan todas las entradas del PKCS12 (el alias es el
+ * {@code kid}) y firma {@code jwt.keystore.active-alias}; rotar es desplegar un keystore con una
+ * entrada nueva. Sin keystore se generan claves en memoria que rotan cada
+ * {@code jwt.keys.rotation-hours}: la clave nueva se publica en el JWKS durante un max-age antes de
+ * usarse para firmar, y la anterior sigue publicada hasta que caduquen los tokens que firmo.
+ *
+ * <p>Las claves generadas son propias de cada replica y ninguna otra acepta los tokens que firman,
+ * asi que solo se permiten con {@code jwt.keys.allow-generated=true} (una sola replica o
+ * desarrollo); si no, el arranque falla.
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    public record SigningKey(String kid, PrivateKey privateKey, PublicKey publicKey,
+                             Instant activatesAt, Instant retiresAt) {
+    }
+
+    public record JwksDocument(String json, String etag) {
+    }
+
+    private final SignatureAlgorithm algorithm;
+    private final ObjectMapper objectMapper;
+    private final boolean generated;
+    private final Duration rotationInterval;
+    private final Duration publishAhead;
+    private final Duration tokenLifetime;
+
+    private volatile List<SigningKey> keys = List.of();
+    private volatile JwksDocument jwks;
+
+    public JwtKeyRing(ObjectMapper objectMapper,
+                      @Value("${jwt.algorithm:HS256}") String algorithm,
+                      @Value("${jwt.keystore.location:}") String keystoreLocation,
+                      @Value("${jwt.keystore.password:}") String keystorePassword,
+                      @Value("${jwt.keystore.active-alias:}") String activeAlias,
+                      @Value("${jwt.keys.allow-generated:false}") boolean allowGenerated,
+                      @Value("${jwt.keys.rotation-hours:24}") long rotationHours,
+                      @Value("${jwt.jwks.max-age-seconds:300}") long jwksMaxAgeSeconds,
+                      @Value("${jwt.expiration-minutes:${APP_JWT_EXP_MIN:480}}") long expirationMinutes) {
+        this.objectMapper = objectMapper;
+        this.algorithm = SignatureAlgorithm.forName(algorithm.trim().toUpperCase());
+        this.rotationInterval = Duration.ofHours(rotationHours);
+        this.publishAhead = Duration.ofSeconds(jwksMaxAgeSeconds);
+        this.tokenLifetime = Duration.ofMinutes(expirationMinutes);
+
+        if (this.algorithm.isHmac()) {
+            this.generated = false;
+            install(List.of());
+        } else if (StringUtils.hasText(keystoreLocation)) {
+            this.generated = false;
+            install(loadKeystore(keystoreLocation, keystorePassword, activeAlias));
+        } else if (allowGenerated) {
+            this.generated = true;
+            log.warn("No jwt.keystore.location configured: using in-memory {} keys. "
+                    + "Tokens signed by this replica are rejected by every other one", this.algorithm.getValue());
+            Instant now = Instant.now();
+            install(List.of(newKey(now)));
+        } else {
+            throw new IllegalStateException("jwt.algorithm=" + this.algorithm.getValue()
+                    + " requires jwt.keystore.location shared by every replica "
+                    + "(or jwt.keys.allow-generated=true for a single replica)");
+        }
+    }
+
+    public boolean isAsymmetric() {
+        return !algorithm.isHmac();
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /** Clave vigente para firmar: la mas reciente ya activada. */
+    public SigningKey active() {
+        Instant now = Instant.now();
+        SigningKey current = null;
+        for (SigningKey key : keys) {
+            if (!key.activatesAt().isAfter(now)) {
+                current = key;
+            }
+        }
+        if (current == null) {
+            throw new IllegalStateException("No active JWT signing key");
+        }
+        return current;
+    }
+
+    public PublicKey publicKey(String kid) {
+        for (SigningKey key : keys) {
+            if (key.kid().equals(kid)) {
+                return key.publicKey();
+            }
+        }
+        return null;
+    }
+
+    public JwksDocument jwks() {
+        return jwks;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.keys.rotation-check-ms:60000}")
+    void rotate() {
+        if (!generated) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<SigningKey> current = keys;
+        SigningKey newest = current.get(current.size() - 1);
+        List<SigningKey> next = new ArrayList<>();
+        for (SigningKey key : current) {
+            if (key.retiresAt() == null || key.retiresAt().isAfter(now)) {
+                next.add(key);
+            }
+        }
+        if (!newest.activatesAt().plus(rotationInterval).isAfter(now)) {
+            // la clave saliente deja de firmar cuando se active la nueva y sigue publicada
+            // mientras existan tokens firmados con ella
+            Instant activatesAt = now.plus(publishAhead);
+            next.remove(newest);
+            next.add(new SigningKey(newest.kid(), newest.privateKey(), newest.publicKey(),
+                    newest.activatesAt(), activatesAt.plus(tokenLifetime)));
+            next.add(newKey(activatesAt));
+            log.info("Scheduled JWT signing key rotation at {}", activatesAt);
+        }
+        if (!next.equals(current)) {
+            install(next);
+        }
+    }
+
+    private void install(List<SigningKey> newKeys) {
+        List<SigningKey> sorted = new ArrayList<>(newKeys);
+        sorted.sort(Comparator.comparing(SigningKey::activatesAt));
+        this.keys = Collections.unmodifiableList(sorted);
+        this.jwks = buildJwks(sorted);
+    }
+
+    private SigningKey newKey(Instant activatesAt) {
+        KeyPair pair = Keys.keyPairFor(algorithm);
+        return new SigningKey(thumbprint(pair.getPublic()), pair.getPrivate(), pair.getPublic(), activatesAt, null);
+    }
+
+    private List<SigningKey> loadKeystore(String location, String password, String activeAlias) {
+        char[] secret = password.toCharArray();
+        try (InputStream in = Files.newInputStream(Path.of(location))) {
+            KeyStore store = KeyStore.getInstance("PKCS12");
+            store.load(in, secret);
+            List<String> aliases = Collections.list(store.aliases()).stream()
+                    .filter(alias -> isKeyEntry(store, alias))
+                    .sorted()
+                    .toList();
+            if (aliases.isEmpty()) {
+                throw new IllegalStateException("JWT keystore " + location + " has no private keys");
+            }
+            String signingAlias = StringUtils.hasText(activeAlias) ? activeAlias : aliases.get(aliases.size() - 1);
+            if (!aliases.contains(signingAlias)) {
+                throw new IllegalStateException("JWT keystore has no key entry for alias " + signingAlias);
+            }
+            // solo firma el alias activo; el resto queda publicado para verificar tokens previos
+            Instant now = Instant.now();
+            List<SigningKey> loaded = new ArrayList<>();
+            for (String alias : aliases) {
+                PrivateKey privateKey = (PrivateKey) store.getKey(alias, secret);
+                PublicKey publicKey = store.getCertificate(alias).getPublicKey();
+                Instant activatesAt = alias.equals(signingAlias) ? now : Instant.EPOCH;
+                loaded.add(new SigningKey(alias, privateKey, publicKey, activatesAt, null));
+            }
+            return loaded;
+        } catch (IOException | GeneralSecurityException ex) {
+            throw new IllegalStateException("Could not load JWT keystore " + location, ex);
+        }
+    }
+
+    private static boolean isKeyEntry(KeyStore store, String alias) {
+        try {
+            return store.isKeyEntry(alias);
+        } catch (GeneralSecurityException ex) {
+            return false;
+        }
+    }
+
+    private JwksDocument buildJwks(List<SigningKey> signingKeys) {
+        List<Map<String, String>> jwkList = new ArrayList<>();
+        for (SigningKey key : signingKeys) {
+            jwkList.add(toJwk(key));
+        }
+        try {
+            String json = objectMapper.writeValueAsString(Map.of("keys", jwkList));
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return new JwksDocument(json, "\"" + base64Url(Arrays.copyOf(digest, 16)) + "\"");
+        } catch (JsonProcessingException | GeneralSecurityException ex) {
+            throw new IllegalStateException("Could not build JWKS document", ex);
+        }
+    }
+
+    private Map<String, String> toJwk(SigningKey key) {
+        Map<String, String> jwk = new LinkedHashMap<>();
+        jwk.put("kid", key.kid());
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getValue());
+        if (key.publicKey() instanceof RSAPublicKey rsa) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", base64Url(unsigned(rsa.getModulus(), 0)));
+            jwk.put("e", base64Url(unsigned(rsa.getPublicExponent(), 0)));
+        } else if (key.publicKey() instanceof ECPublicKey ec) {
+            int size = (ec.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+            jwk.put("kty", "EC");
+            jwk.put("crv", curveName(size));
+            jwk.put("x", base64Url(unsigned(ec.getW().getAffineX(), size)));
+            jwk.put("y", base64Url(unsigned(ec.getW().getAffineY(), size)));
+        } else {
+            throw new IllegalStateException("Unsupported JWT public key type " + key.publicKey().getAlgorithm());
+        }
+        return jwk;
+    }
+
+    private static String curveName(int coordinateSize) {
+        return switch (coordinateSize) {
+            case 32 -> "P-256";
+            case 48 -> "P-384";
+            case 66 -> "P-521";
+            default -> throw new IllegalStateException("Unsupported EC curve size " + coordinateSize);
+        };
+    }
+
+    /** Big-endian sin el byte de signo, rellenado a {@code size} bytes si se indica. */
+    private static byte[] unsigned(BigInteger value, int size) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (size > bytes.length) {
+            byte[] padded = new byte[size];
+            System.arraycopy(bytes, 0, padded, size - bytes.length, bytes.length);
+            return padded;
+        }
+        return bytes;
+    }
+
+    private static String thumbprint(PublicKey publicKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(publicKey.getEncoded());
+            return base64Url(Arrays.copyOf(digest, 12));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -1,48 +1,158 @@
 package com.proyecto.auth.service;
 
+import com.proyecto.auth.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
     private final Key secretKey;
+    private final JwtKeyRing keyRing;
+    private final JwtParser parser;
+    private final String issuer;
+    private final long expirationMillis;
+    private final Timer signTimer;
+    private final Timer verifyValidTimer;
+    private final Timer verifyInvalidTimer;
 
-    public JwtService(@Value("${jwt.secret:${APP_JWT_SECRET:}}") String secret) {
-        if (secret == null || secret.isBlank()) {
-            throw new IllegalStateException("JWT secret not configured. Set APP_JWT_SECRET or jwt.secret");
+    public JwtService(JwtKeyRing keyRing,
+                      MeterRegistry registry,
+                      @Value("${jwt.secret:${APP_JWT_SECRET:}}") String secret,
+                      @Value("${jwt.issuer:auth-svc}") String issuer,
+                      @Value("${jwt.expiration-minutes:${APP_JWT_EXP_MIN:480}}") long expirationMinutes) {
+        this.keyRing = keyRing;
+        this.secretKey = hmacKey(secret, !keyRing.isAsymmetric());
+        this.issuer = issuer;
+        this.expirationMillis = expirationMinutes * 60_000L;
+        // JwtParser es inmutable y thread-safe: se construye una sola vez.
+        // Con firma asimetrica la clave se elige por kid; el secreto HS256, si existe,
+        // solo sirve para aceptar tokens emitidos antes del cambio de algoritmo.
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return verificationKey(header.getKeyId());
+                    }
+                })
+                .requireIssuer(issuer)
+                .build();
+
+        this.signTimer = Timer.builder("auth.jwt.sign")
+                .description("Construccion y firma de access tokens")
+                .register(registry);
+        this.verifyValidTimer = verifyTimer(registry, "valid");
+        this.verifyInvalidTimer = verifyTimer(registry, "invalid");
+    }
+
+    public String generate(String subject, String role) {
+        return sign(builder(subject)
+                .claim("role", role));
+    }
+
+    public String generate(User user, UUID supervisorId) {
+        JwtBuilder builder = builder(user.getId().toString())
+                .claim("email", user.getEmail())
+                .claim("name", user.getName())
+                .claim("role", user.getRole().name());
+        if (supervisorId != null) {
+            builder.claim("supervisorId", supervisorId.toString())
+                    .claim("teamId", supervisorId.toString());
         }
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        if (keyBytes.length < 32) {
-            throw new IllegalStateException("JWT secret must be at least 32 bytes for HS256");
+        return sign(builder);
+    }
+
+    public Claims parse(String token) {
+        long start = System.nanoTime();
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            verifyValidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (JwtException | IllegalArgumentException ex) {
+            verifyInvalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw ex;
         }
-        this.secretKey = Keys.hmacShaKeyFor(keyBytes);
     }
 
-    public String generate(String subject, String role) {
+    public String getSubject(String token) {
+        return parse(token).getSubject();
+    }
+
+    public long getExpirationSeconds() {
+        return expirationMillis / 1000;
+    }
+
+    // el builder solo arma el header y los claims; la firma ocurre en compact()
+    private String sign(JwtBuilder builder) {
+        return signTimer.record(builder::compact);
+    }
+
+    private JwtBuilder builder(String subject) {
         long now = System.currentTimeMillis();
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
-                .claim("role", role)
+                .setIssuer(issuer)
                 .setIssuedAt(new Date(now))
-                .setExpiration(new Date(now + 1000L * 60 * 60 * 8))
-                .signWith(secretKey, SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(new Date(now + expirationMillis));
+        if (keyRing.isAsymmetric()) {
+            JwtKeyRing.SigningKey signingKey = keyRing.active();
+            return builder.setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                    .signWith(signingKey.privateKey(), keyRing.getAlgorithm());
+        }
+        return builder.signWith(secretKey, SignatureAlgorithm.HS256);
     }
 
-    public String getSubject(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    private Key verificationKey(String kid) {
+        if (kid != null) {
+            Key publicKey = keyRing.publicKey(kid);
+            if (publicKey == null) {
+                throw new SignatureException("Unknown JWT key id " + kid);
+            }
+            return publicKey;
+        }
+        if (secretKey == null) {
+            throw new SignatureException("JWT without key id");
+        }
+        return secretKey;
+    }
+
+    private static Timer verifyTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("auth.jwt.verify")
+                .description("Verificacion de firma y claims de tokens no cacheados")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Key hmacKey(String secret, boolean required) {
+        if (secret == null || secret.isBlank()) {
+            if (required) {
+                throw new IllegalStateException("JWT secret not configured. Set APP_JWT_SECRET or jwt.secret");
+            }
+            return null;
+        }
+        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length < 32) {
+            throw new IllegalStateException("JWT secret must be at least 32 bytes for HS256");
+        }
+        return Keys.hmacShaKeyFor(keyBytes);
     }
 }
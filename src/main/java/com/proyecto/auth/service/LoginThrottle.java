@@ -0,0 +1,123 @@
+package com.proyecto.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Limite de intentos fallidos de login por cuenta y por IP, evaluado antes de tocar la base o BCrypt.
+ *
+ * <p>Cada intento toma de forma atomica un token de la cuenta y otro de la IP antes de verificar,
+ * asi que intentos concurrentes contra la misma cuenta no pasan todos a la vez. Si el intento no
+ * termina en credenciales invalidas (login correcto, o sin veredicto por saturacion) los tokens se
+ * devuelven con {@link #refund}: solo los fallos gastan, y un turno entero entrando desde la misma
+ * IP no se bloquea por logins correctos.
+ *
+ * <p>La IP es {@code request.getRemoteAddr()}. Detras de un ingress o proxy hay que configurar
+ * {@code server.forward-headers-strategy=native} (y, si el proxy no usa una IP privada,
+ * {@code server.tomcat.remoteip.internal-proxies}) para que Tomcat tome la direccion de
+ * X-Forwarded-For solo cuando la envia un proxy de confianza; si no, todos los clientes
+ * comparten la IP del proxy.
+ */
+@Service
+public class LoginThrottle {
+
+    private final boolean enabled;
+    private final TokenBucketSketch byIp;
+    private final TokenBucketSketch byAccount;
+    private final Counter throttledByIp;
+    private final Counter throttledByAccount;
+    private final Counter failures;
+    private final DistributionSummary retryAfter;
+
+    public LoginThrottle(MeterRegistry registry,
+                         @Value("${auth.throttle.enabled:true}") boolean enabled,
+                         @Value("${auth.throttle.width:65536}") int width,
+                         @Value("${auth.throttle.depth:2}") int depth,
+                         @Value("${auth.throttle.ip.burst:30}") int ipBurst,
+                         @Value("${auth.throttle.ip.refill-per-minute:60}") double ipRefillPerMinute,
+                         @Value("${auth.throttle.account.burst:5}") int accountBurst,
+                         @Value("${auth.throttle.account.refill-per-minute:2}") double accountRefillPerMinute) {
+        this.enabled = enabled;
+        this.byIp = new TokenBucketSketch(width, depth, ipBurst, interval(ipRefillPerMinute));
+        this.byAccount = new TokenBucketSketch(width, depth, accountBurst, interval(accountRefillPerMinute));
+
+        this.throttledByIp = Counter.builder("auth.login.throttled")
+                .description("Intentos de login rechazados con 429 antes de verificar el password")
+                .tag("scope", "ip")
+                .register(registry);
+        this.throttledByAccount = Counter.builder("auth.login.throttled")
+                .description("Intentos de login rechazados con 429 antes de verificar el password")
+                .tag("scope", "account")
+                .register(registry);
+        this.failures = Counter.builder("auth.login.failures")
+                .description("Intentos de login con credenciales invalidas")
+                .register(registry);
+        this.retryAfter = DistributionSummary.builder("auth.login.throttle.retry-after")
+                .description("Espera indicada en Retry-After a los intentos rechazados")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * Reserva el intento: 0 si puede seguir (con un token de cuenta y de IP tomados), si no los
+     * segundos que el cliente debe esperar. Un intento admitido termina en {@link #recordFailure}
+     * o en {@link #refund}.
+     */
+    public long check(String clientIp, String email) {
+        if (!enabled) {
+            return 0;
+        }
+        // la cuenta primero: un rechazo por cuenta no debe gastar ademas el token de la IP
+        long accountWait = byAccount.tryAcquire(accountKey(email));
+        if (accountWait > 0) {
+            throttledByAccount.increment();
+            return reject(accountWait);
+        }
+        long ipWait = byIp.tryAcquire(ipKey(clientIp));
+        if (ipWait > 0) {
+            byAccount.refund(accountKey(email));
+            throttledByIp.increment();
+            return reject(ipWait);
+        }
+        return 0;
+    }
+
+    /** Credenciales invalidas (cuenta inexistente o password incorrecto): los tokens quedan gastados. */
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    /** El intento admitido no fue un fallo de credenciales: devuelve sus tokens. */
+    public void refund(String clientIp, String email) {
+        if (enabled) {
+            byAccount.refund(accountKey(email));
+            byIp.refund(ipKey(clientIp));
+        }
+    }
+
+    private long reject(long waitNanos) {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        retryAfter.record(seconds);
+        return seconds;
+    }
+
+    private static String ipKey(String clientIp) {
+        return clientIp == null ? "" : clientIp;
+    }
+
+    private static String accountKey(String email) {
+        return email == null ? "" : email.trim().toLowerCase();
+    }
+
+    private static Duration interval(double refillPerMinute) {
+        if (refillPerMinute <= 0) {
+            throw new IllegalArgumentException("Throttle refill rate must be positive");
+        }
+        return Duration.ofNanos((long) (TimeUnit.MINUTES.toNanos(1) / refillPerMinute));
+    }
+}
@@ -0,0 +1,96 @@
+package com.proyecto.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.proyecto.auth.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.UUID;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache opcional de credenciales verificadas recientemente, para cuentas (kioscos, integraciones)
+ * que hacen login muchas veces por minuto. Nunca guarda el password: solo un HMAC con una clave
+ * aleatoria por proceso. Cada entrada recuerda el hash y el rol vigentes al verificar, de modo que
+ * cualquier cambio de password o de rol la invalida sin coordinacion adicional.
+ */
+@Component
+public class LoginVerificationCache {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private record Verified(byte[] passwordMac, String passwordHash, User.Role role) {
+    }
+
+    private final boolean enabled;
+    private final SecretKeySpec macKey;
+    private final Cache<UUID, Verified> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public LoginVerificationCache(MeterRegistry registry,
+                                  @Value("${auth.login-cache.enabled:false}") boolean enabled,
+                                  @Value("${auth.login-cache.ttl-seconds:60}") long ttlSeconds,
+                                  @Value("${auth.login-cache.max-entries:10000}") long maxEntries) {
+        this.enabled = enabled;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.macKey = new SecretKeySpec(key, MAC_ALGORITHM);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "login-verification");
+        this.hits = Counter.builder("auth.login.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("auth.login.cache.requests").tag("result", "miss").register(registry);
+    }
+
+    public boolean isVerified(User user, String rawPassword) {
+        if (!enabled) {
+            return false;
+        }
+        Verified verified = cache.getIfPresent(user.getId());
+        boolean hit = verified != null
+                && verified.role() == user.getRole()
+                && verified.passwordHash().equals(user.getPasswordHash())
+                && MessageDigest.isEqual(verified.passwordMac(), mac(user.getId(), rawPassword));
+        (hit ? hits : misses).increment();
+        return hit;
+    }
+
+    public void put(User user, String rawPassword) {
+        if (!enabled) {
+            return;
+        }
+        cache.put(user.getId(), new Verified(mac(user.getId(), rawPassword), user.getPasswordHash(), user.getRole()));
+    }
+
+    public void invalidate(UUID userId) {
+        cache.invalidate(userId);
+    }
+
+    private byte[] mac(UUID userId, String rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(macKey);
+            mac.update(ByteBuffer.allocate(16)
+                    .putLong(userId.getMostSignificantBits())
+                    .putLong(userId.getLeastSignificantBits())
+                    .array());
+            return mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HMAC not available", ex);
+        }
+    }
+}
@@ -1,18 +1,122 @@
 package com.proyecto.auth.service;
 
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Service
 public class PasswordService {
 
-    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    private static final Logger log = LoggerFactory.getLogger(PasswordService.class);
+
+    private static final String BCRYPT_ID = "bcrypt";
+
+    private final HashingExecutor hashingExecutor;
+    private final PasswordEncoder encoder;
+    private final int bcryptCost;
+    private volatile int dummyCost;
+    private volatile String dummyHash;
+
+    public PasswordService(HashingExecutor hashingExecutor,
+                           @Value("${auth.password.bcrypt-cost:0}") int configuredCost,
+                           @Value("${auth.password.target-verify-ms:50}") long targetVerifyMillis,
+                           @Value("${auth.password.min-cost:10}") int minCost,
+                           @Value("${auth.password.max-cost:14}") int maxCost) {
+        this.hashingExecutor = hashingExecutor;
+        this.bcryptCost = configuredCost > 0 ? configuredCost : calibrate(targetVerifyMillis, minCost, maxCost);
+
+        DelegatingPasswordEncoder delegating =
+                new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, new BCryptPasswordEncoder(bcryptCost)));
+        // Los hashes anteriores se guardaron sin prefijo {bcrypt}; se siguen validando y se marcan para rehash
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        this.encoder = delegating;
+        // hash de un password aleatorio que nadie conoce, con el costo vigente
+        this.dummyCost = bcryptCost;
+        this.dummyHash = encoder.encode(UUID.randomUUID().toString());
+    }
 
     public String encode(String rawPassword) {
-        return encoder.encode(rawPassword);
+        return hashingExecutor.call(() -> encoder.encode(rawPassword));
+    }
+
+    /** Version no bloqueante para hashear varios passwords en paralelo en el pool de hashing. */
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        return hashingExecutor.submit(() -> encoder.encode(rawPassword));
     }
 
     public boolean matches(String rawPassword, String encoded) {
-        return encoder.matches(rawPassword, encoded);
+        return hashingExecutor.call(() -> encoder.matches(rawPassword, encoded));
+    }
+
+    /**
+     * Verificacion contra un hash que nunca coincide, en el mismo pool y con el mismo costo que
+     * {@link #matches}: un login con email inexistente tarda y consume lo mismo que uno real.
+     * El costo es el de {@link #useDummyCost}, el vigente salvo que queden hashes anteriores.
+     */
+    public void verifyDummy(String rawPassword) {
+        String candidate = rawPassword == null ? "" : rawPassword;
+        hashingExecutor.call(() -> encoder.matches(candidate, dummyHash));
+    }
+
+    /**
+     * Cambia el costo del hash ficticio. Mientras queden hashes sin migrar, que se verifican con
+     * su costo original, un email inexistente con el costo vigente tardaria mas que esas cuentas.
+     * Con el costo de los hashes sin migrar son las cuentas ya migradas las que tardan distinto:
+     * la diferencia no desaparece del todo hasta que se migran todas.
+     */
+    public void useDummyCost(int cost) {
+        if (cost == dummyCost) {
+            return;
+        }
+        dummyHash = "{" + BCRYPT_ID + "}" + new BCryptPasswordEncoder(cost).encode(UUID.randomUUID().toString());
+        dummyCost = cost;
+        log.info("Unknown-account logins now verify against BCrypt cost {}", cost);
+    }
+
+    /** true si el hash usa otro algoritmo o un costo menor al configurado. */
+    public boolean needsUpgrade(String encoded) {
+        return encoder.upgradeEncoding(encoded);
+    }
+
+    public int getBcryptCost() {
+        return bcryptCost;
+    }
+
+    /**
+     * Elige el costo mas alto cuyo hash tarda como maximo {@code targetMillis} en este host.
+     * Cada punto de costo duplica el trabajo, asi que basta con subir hasta pasarse.
+     */
+    private static int calibrate(long targetMillis, int minCost, int maxCost) {
+        // calentamiento del JIT para no medir codigo interpretado
+        new BCryptPasswordEncoder(4).encode("calibration");
+
+        int chosen = minCost;
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            long elapsed = measure(cost);
+            if (elapsed > targetMillis) {
+                break;
+            }
+            chosen = cost;
+        }
+        log.info("BCrypt cost calibrated to {} (target verify time {} ms)", chosen, targetMillis);
+        return chosen;
+    }
+
+    private static long measure(int cost) {
+        BCryptPasswordEncoder candidate = new BCryptPasswordEncoder(cost);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            candidate.encode("calibration");
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
     }
-}
\ No newline at end of file
+}
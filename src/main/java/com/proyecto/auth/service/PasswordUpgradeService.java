@@ -0,0 +1,119 @@
+package com.proyecto.auth.service;
+
+import com.proyecto.auth.model.User;
+import com.proyecto.auth.repo.UserRepository;
+import jakarta.annotation.PreDestroy;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rehash en segundo plano de los hashes guardados con otro algoritmo o con un costo menor.
+ * Se dispara tras un login correcto (unico momento en que tenemos el password en claro)
+ * y nunca bloquea la respuesta: si la cola esta llena se reintenta en el siguiente login.
+ */
+@Service
+public class PasswordUpgradeService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordUpgradeService.class);
+
+    private final PasswordService passwordService;
+    private final UserRepository repo;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+
+    public PasswordUpgradeService(PasswordService passwordService,
+                                  UserRepository repo,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${auth.password.rehash-queue-capacity:100}") int queueCapacity) {
+        this.passwordService = passwordService;
+        this.repo = repo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = new ThreadPoolExecutor(
+                1, 1,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-rehash");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public void upgradeIfNeeded(User user, String rawPassword) {
+        String currentHash = user.getPasswordHash();
+        if (!passwordService.needsUpgrade(currentHash)) {
+            return;
+        }
+        UUID userId = user.getId();
+        if (!pending.add(userId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    rehash(userId, currentHash, rawPassword);
+                } finally {
+                    pending.remove(userId);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            pending.remove(userId);
+            log.debug("Rehash queue full, skipping user {}", userId);
+        }
+    }
+
+    private void rehash(UUID userId, String previousHash, String rawPassword) {
+        try {
+            String upgraded = passwordService.encode(rawPassword);
+            // Por la entidad y no con un UPDATE masivo: un update JPQL vacia la region "users" de la
+            // cache de segundo nivel y las consultas cacheadas; asi solo se reemplaza esta entrada.
+            // El @Version hace de CAS: si otra replica cambio la fila, el commit falla y se omite
+            Boolean upgradedNow = transactionTemplate.execute(status -> repo.findById(userId)
+                    .filter(user -> previousHash.equals(user.getPasswordHash()))
+                    .map(user -> {
+                        user.setPasswordHash(upgraded);
+                        return true;
+                    })
+                    .orElse(false));
+            if (Boolean.TRUE.equals(upgradedNow)) {
+                log.info("Upgraded password hash for user {}", userId);
+            }
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            log.debug("User {} changed concurrently, skipping rehash", userId);
+        } catch (HashingSaturatedException ex) {
+            log.debug("Hashing saturated, postponing rehash for user {}", userId);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to upgrade password hash for user {}", userId, ex);
+        }
+    }
+
+    // El hash ficticio del login sigue el costo de los hashes sin migrar mientras queden
+    @Scheduled(fixedDelayString = "${auth.password.legacy-cost-check-ms:600000}")
+    void matchDummyCostToLegacyHashes() {
+        try {
+            passwordService.useDummyCost(repo.findPrevalentLegacyBcryptCost().orElse(passwordService.getBcryptCost()));
+        } catch (RuntimeException ex) {
+            log.warn("Could not check the cost of legacy password hashes", ex);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,127 @@
+package com.proyecto.auth.service;
+
+import com.proyecto.auth.model.RefreshToken;
+import com.proyecto.auth.repo.RefreshTokenRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Refresh tokens rotativos: cada uso entrega uno nuevo de la misma familia e invalida el anterior.
+ * Presentar un token ya rotado se considera robo y elimina toda la familia.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    public record IssuedToken(String value, Instant expiresAt) {
+    }
+
+    public record Rotation(UUID userId, IssuedToken next) {
+    }
+
+    private final RefreshTokenRepository repo;
+    private final TokenRevocationService revocations;
+    private final Duration lifetime;
+    private final int purgeBatchSize;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository repo,
+                               TokenRevocationService revocations,
+                               @Value("${jwt.refresh.expiration-days:14}") long expirationDays,
+                               @Value("${jwt.refresh.purge-batch-size:1000}") int purgeBatchSize) {
+        this.repo = repo;
+        this.revocations = revocations;
+        this.lifetime = Duration.ofDays(expirationDays);
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    @Transactional
+    public IssuedToken issue(UUID userId) {
+        return issue(userId, UUID.randomUUID());
+    }
+
+    @Transactional
+    public Optional<Rotation> rotate(String presented) {
+        var found = repo.findByTokenHash(hash(presented));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        RefreshToken token = found.get();
+        Instant now = Instant.now();
+        if (token.getRotatedAt() != null) {
+            log.warn("Refresh token reuse detected for user {}, revoking family {}", token.getUserId(), token.getFamilyId());
+            repo.deleteFamily(token.getFamilyId());
+            // los access tokens emitidos con la familia robada tampoco deben seguir valiendo
+            revocations.revokeUser(token.getUserId());
+            return Optional.empty();
+        }
+        if (!token.getExpiresAt().isAfter(now)) {
+            return Optional.empty();
+        }
+        // otro refresh concurrente con el mismo token ya lo roto
+        if (repo.markRotated(token.getId(), now) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Rotation(token.getUserId(), issue(token.getUserId(), token.getFamilyId())));
+    }
+
+    public void revoke(String presented) {
+        repo.findByTokenHash(hash(presented)).ifPresent(token -> repo.deleteFamily(token.getFamilyId()));
+    }
+
+    public void revokeAll(UUID userId) {
+        repo.deleteByUser(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-interval-ms:600000}")
+    void purgeExpired() {
+        // lotes chicos, cada uno en su propia transaccion, para no bloquear la tabla
+        int total = 0;
+        int deleted;
+        do {
+            deleted = repo.purgeExpired(purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens", total);
+        }
+    }
+
+    private IssuedToken issue(UUID userId, UUID familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setUserId(userId);
+        token.setFamilyId(familyId);
+        token.setTokenHash(hash(value));
+        token.setExpiresAt(Instant.now().plus(lifetime));
+        repo.save(token);
+        return new IssuedToken(value, token.getExpiresAt());
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
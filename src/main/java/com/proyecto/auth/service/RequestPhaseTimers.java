@@ -0,0 +1,43 @@
+package com.proyecto.auth.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers por fase de login y registro ({@code auth.login.phase}, {@code auth.register.phase}).
+ * El total por endpoint ya sale de {@code http.server.requests}; estos separan la consulta a la
+ * base, BCrypt, la validacion del supervisor y el insert para ver en cual se va el p99.
+ */
+@Component
+public class RequestPhaseTimers {
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public RequestPhaseTimers(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T login(String phase, Supplier<T> call) {
+        return timer("auth.login.phase", phase).record(call);
+    }
+
+    public void login(String phase, Runnable call) {
+        timer("auth.login.phase", phase).record(call);
+    }
+
+    public <T> T register(String phase, Supplier<T> call) {
+        return timer("auth.register.phase", phase).record(call);
+    }
+
+    private Timer timer(String name, String phase) {
+        return timers.computeIfAbsent(name + ':' + phase, key -> Timer.builder(name)
+                .description("Duracion de cada fase del request, incluidas las que terminan en error")
+                .tag("phase", phase)
+                .register(registry));
+    }
+}
@@ -1,18 +1,27 @@
 package com.proyecto.auth.service;
 
-import java.util.ArrayList;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.util.StringUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
@@ -24,14 +33,35 @@ public class SupervisorsClient {
 
     private static final Logger log = LoggerFactory.getLogger(SupervisorsClient.class);
 
+    // Copia local del directorio de supervisores, reemplazada completa en cada refresco
+    private record Snapshot(List<SupervisorInfo> all, Map<UUID, SupervisorInfo> byId, String etag, Instant fetchedAt) {
+
+        Snapshot revalidated(Instant now) {
+            return new Snapshot(all, byId, etag, now);
+        }
+    }
+
     private final RestTemplate restTemplate;
     private final String baseUrl;
     private final String authHeaderValue;
+    private final Duration maxStaleness;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry registry;
+    private final SingleFlight<UUID, Optional<SupervisorInfo>> byIdFlights = new SingleFlight<>();
+    private final SingleFlight<String, Snapshot> directoryFlights = new SingleFlight<>();
+    private volatile Snapshot snapshot;
 
     public SupervisorsClient(RestTemplate restTemplate,
+                             MeterRegistry registry,
                              @Value("${ops.supervisors.base-url:#{null}}") String configuredBaseUrl,
-                             @Value("${ops.supervisors.auth-token:#{null}}") String configuredAuthToken) {
+                             @Value("${ops.supervisors.auth-token:#{null}}") String configuredAuthToken,
+                             @Value("${ops.supervisors.max-staleness-seconds:300}") long maxStalenessSeconds,
+                             @Value("${ops.supervisors.circuit.failure-threshold:5}") int failureThreshold,
+                             @Value("${ops.supervisors.circuit.open-seconds:30}") long openSeconds) {
         this.restTemplate = restTemplate;
+        this.registry = registry;
+        this.maxStaleness = Duration.ofSeconds(maxStalenessSeconds);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofSeconds(openSeconds));
         String envBaseUrl = System.getenv("SUPERVISORS_SVC_URL");
         String resolvedBaseUrl = StringUtils.hasText(configuredBaseUrl) ? configuredBaseUrl : envBaseUrl;
         if (!StringUtils.hasText(resolvedBaseUrl)) {
@@ -50,39 +80,148 @@ public class SupervisorsClient {
         }
     }
 
+    // Se sirve la copia local mientras no supere el presupuesto de antiguedad; el refresco
+    // en segundo plano la revalida con If-None-Match
     public List<SupervisorInfo> fetchAll() {
-        try {
-            ResponseEntity<SupervisorInfo[]> response =
-                    restTemplate.exchange(baseUrl + "/supervisors", HttpMethod.GET, httpEntity(), SupervisorInfo[].class);
-            if (response.getBody() == null) {
-                return Collections.emptyList();
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            return current.all();
+        }
+        return refreshSnapshot().all();
+    }
+
+    public Optional<SupervisorInfo> fetchById(UUID supervisorId) {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            SupervisorInfo cached = current.byId().get(supervisorId);
+            if (cached != null) {
+                return Optional.of(cached);
             }
-            return new ArrayList<>(Arrays.asList(response.getBody()));
+        }
+        // supervisor recien creado o copia vencida: consulta directa
+        return fetchByIdRemote(supervisorId);
+    }
+
+    @Scheduled(fixedDelayString = "${ops.supervisors.refresh-interval-ms:30000}")
+    void refreshDirectory() {
+        try {
+            refreshSnapshot();
+        } catch (IllegalStateException ex) {
+            Snapshot current = snapshot;
+            log.debug("Keeping supervisors snapshot from {}", current != null ? current.fetchedAt() : "never");
+        }
+    }
+
+    private boolean isFresh(Snapshot current) {
+        return current != null && current.fetchedAt().plus(maxStaleness).isAfter(Instant.now());
+    }
+
+    // Un solo refresco en vuelo aunque lo pidan varios requests a la vez
+    private Snapshot refreshSnapshot() {
+        return directoryFlights.execute("all", this::fetchSnapshot);
+    }
+
+    private Snapshot fetchSnapshot() {
+        acquireCircuit("directory");
+        long start = System.nanoTime();
+        Snapshot current = snapshot;
+        HttpHeaders headers = headers();
+        if (current != null && current.etag() != null) {
+            headers.setIfNoneMatch(current.etag());
+        }
+        try {
+            // record() cuenta cualquier excepcion como fallo: la llamada de prueba nunca queda colgada
+            Snapshot refreshed = circuitBreaker.record(() -> {
+                ResponseEntity<SupervisorInfo[]> response = restTemplate.exchange(
+                        baseUrl + "/supervisors", HttpMethod.GET, new HttpEntity<>(headers), SupervisorInfo[].class);
+                Instant now = Instant.now();
+                if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && current != null) {
+                    record("directory", "not-modified", start);
+                    return current.revalidated(now);
+                }
+                List<SupervisorInfo> all = response.getBody() == null
+                        ? Collections.emptyList()
+                        : List.copyOf(Arrays.asList(response.getBody()));
+                Map<UUID, SupervisorInfo> byId = all.stream()
+                        .filter(info -> info.id() != null)
+                        .collect(Collectors.toUnmodifiableMap(SupervisorInfo::id, Function.identity(), (a, b) -> a));
+                record("directory", "ok", start);
+                return new Snapshot(all, byId, response.getHeaders().getETag(), now);
+            });
+            snapshot = refreshed;
+            return refreshed;
         } catch (RestClientException ex) {
-            log.error("Failed to fetch supervisors list from {}", baseUrl, ex);
+            record("directory", "error", start);
+            log.warn("Failed to fetch supervisors list from {}: {}", baseUrl, ex.getMessage());
             throw new IllegalStateException("No se pudo consultar el servicio de supervisores", ex);
+        } catch (RuntimeException ex) {
+            record("directory", "error", start);
+            throw ex;
         }
     }
 
-    public Optional<SupervisorInfo> fetchById(UUID supervisorId) {
+    // Los registros concurrentes con el mismo supervisorId comparten una sola llamada
+    private Optional<SupervisorInfo> fetchByIdRemote(UUID supervisorId) {
+        return byIdFlights.execute(supervisorId, () -> callById(supervisorId));
+    }
+
+    private Optional<SupervisorInfo> callById(UUID supervisorId) {
+        acquireCircuit("by-id");
+        long start = System.nanoTime();
         try {
-            ResponseEntity<SupervisorInfo> response =
-                    restTemplate.exchange(baseUrl + "/supervisors/{id}", HttpMethod.GET, httpEntity(), SupervisorInfo.class, supervisorId);
-            return Optional.ofNullable(response.getBody());
-        } catch (HttpClientErrorException.NotFound ex) {
-            return Optional.empty();
+            return circuitBreaker.record(() -> {
+                try {
+                    ResponseEntity<SupervisorInfo> response = restTemplate.exchange(
+                            baseUrl + "/supervisors/{id}", HttpMethod.GET, httpEntity(), SupervisorInfo.class, supervisorId);
+                    record("by-id", "ok", start);
+                    return Optional.ofNullable(response.getBody());
+                } catch (HttpClientErrorException.NotFound ex) {
+                    // el servicio respondio: para el circuito es un exito
+                    record("by-id", "not-found", start);
+                    return Optional.empty();
+                }
+            });
         } catch (RestClientException ex) {
+            record("by-id", "error", start);
             log.error("Failed to fetch supervisor {} from {}", supervisorId, baseUrl, ex);
             throw new IllegalStateException("No se pudo validar el supervisor indicado", ex);
+        } catch (RuntimeException ex) {
+            record("by-id", "error", start);
+            throw ex;
         }
     }
 
+    private void acquireCircuit(String call) {
+        if (!circuitBreaker.tryAcquire()) {
+            // sin llamada remota: la duracion es ~0, interesa el conteo
+            record(call, "circuit-open", System.nanoTime());
+            throw new IllegalStateException("Servicio de supervisores no disponible (circuito abierto)");
+        }
+    }
+
+    // Una serie por llamada y resultado; solo cuentan las llamadas reales, no las servidas
+    // desde la copia local
+    private void record(String call, String outcome, long startNanos) {
+        Timer.builder("auth.supervisors.request")
+                .description("Llamadas al servicio de supervisores por tipo y resultado")
+                .tag("call", call)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
     private HttpEntity<?> httpEntity() {
         if (authHeaderValue == null) {
             return HttpEntity.EMPTY;
         }
+        return new HttpEntity<>(headers());
+    }
+
+    private HttpHeaders headers() {
         HttpHeaders headers = new HttpHeaders();
-        headers.set(HttpHeaders.AUTHORIZATION, authHeaderValue);
-        return new HttpEntity<>(headers);
+        if (authHeaderValue != null) {
+            headers.set(HttpHeaders.AUTHORIZATION, authHeaderValue);
+        }
+        return headers;
     }
 }
@@ -0,0 +1,100 @@
+package com.proyecto.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Valida bearer tokens y recuerda los ya verificados, indexados por el SHA-256 del token,
+ * para no repetir la verificacion de firma en cada request. Cada entrada expira junto con su token.
+ */
+@Service
+public class TokenAuthenticationService {
+
+    private final JwtService jwtService;
+    private final TokenRevocationService revocations;
+    private final Cache<String, AuthenticatedUser> verified;
+
+    public TokenAuthenticationService(JwtService jwtService,
+                                      TokenRevocationService revocations,
+                                      MeterRegistry registry,
+                                      @Value("${auth.token-cache.max-entries:10000}") long maxEntries) {
+        this.jwtService = jwtService;
+        this.revocations = revocations;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<String, AuthenticatedUser>() {
+                    @Override
+                    public long expireAfterCreate(String key, AuthenticatedUser user, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), user.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, AuthenticatedUser user, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, AuthenticatedUser user, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, verified, "verified-tokens");
+    }
+
+    public Optional<AuthenticatedUser> authenticate(String token) {
+        String key = hash(token);
+        AuthenticatedUser user = verified.getIfPresent(key);
+        if (user == null) {
+            try {
+                user = toUser(jwtService.parse(token));
+            } catch (JwtException | IllegalArgumentException ex) {
+                return Optional.empty();
+            }
+            verified.put(key, user);
+        }
+        // la revocacion se consulta siempre: puede llegar despues de cachear el token
+        return revocations.isRevoked(user) ? Optional.empty() : Optional.of(user);
+    }
+
+    private static AuthenticatedUser toUser(Claims claims) {
+        String supervisorId = claims.get("supervisorId", String.class);
+        return new AuthenticatedUser(
+                UUID.fromString(claims.getSubject()),
+                claims.get("email", String.class),
+                claims.get("name", String.class),
+                claims.get("role", String.class),
+                supervisorId != null ? UUID.fromString(supervisorId) : null,
+                claims.getId(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : Instant.EPOCH,
+                claims.getExpiration().toInstant()
+        );
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.proyecto.auth.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets por clave con memoria fija y sin locks.
+ *
+ * <p>Cada bucket se guarda como un unico long, el "tiempo teorico de llegada" del algoritmo GCRA
+ * (equivalente a un token bucket de {@code capacity} tokens que recarga uno cada
+ * {@code interval}), y se actualiza con CAS. Las claves no se almacenan: se reparten en
+ * {@code depth} filas de {@code width} celdas como un count-min sketch. Dos claves que colisionan
+ * comparten celda, asi que una celda solo puede sobreestimar el consumo de una clave; se toma la
+ * menos cargada de sus celdas y la cola larga de claves poco usadas cuesta la misma memoria que
+ * ninguna. El hash lleva una semilla aleatoria para que no se puedan fabricar colisiones contra
+ * una cuenta concreta.
+ */
+public class TokenBucketSketch {
+
+    private final AtomicLongArray cells;
+    private final int width;
+    private final int depth;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final long seed;
+    private final LongSupplier nanoClock;
+
+    public TokenBucketSketch(int width, int depth, int capacity, Duration interval) {
+        this(width, depth, capacity, interval, new SecureRandom().nextLong(), relativeClock());
+    }
+
+    TokenBucketSketch(int width, int depth, int capacity, Duration interval, long seed, LongSupplier nanoClock) {
+        if (width <= 0 || depth <= 0 || capacity <= 0 || interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Invalid token bucket sketch configuration");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.intervalNanos = interval.toNanos();
+        // una llegada cabe si el tiempo teorico no se adelanta mas de capacity - 1 intervalos
+        this.burstNanos = intervalNanos * (capacity - 1);
+        this.seed = seed;
+        this.nanoClock = nanoClock;
+        this.cells = new AtomicLongArray(width * depth);
+    }
+
+    /**
+     * Consume un token de {@code key}. Devuelve 0 si habia, o los nanos hasta que haya uno.
+     *
+     * <p>Decide la celda menos cargada (la estimacion del count-min) con un CAS condicional. Las
+     * demas celdas se adelantan antes que ella, asi siguen siendo las mas cargadas y los intentos
+     * concurrentes de la misma clave compiten todos por el mismo CAS: no pasan mas de
+     * {@code capacity} aunque lleguen a la vez.
+     */
+    public long tryAcquire(String key) {
+        int[] slots = slots(key);
+        long now = nanoClock.getAsLong();
+        long cap = now + burstNanos + intervalNanos;
+        int decider = leastLoaded(slots);
+        boolean[] advanced = new boolean[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            if (i != decider) {
+                advanced[i] = advance(slots[i], now, cap, false);
+            }
+        }
+        if (advance(slots[decider], now, cap, true)) {
+            return 0;
+        }
+        for (int i = 0; i < slots.length; i++) {
+            if (advanced[i]) {
+                retreat(slots[i], now);
+            }
+        }
+        return waitNanos(slots, now);
+    }
+
+    /**
+     * Devuelve el token tomado con {@link #tryAcquire} cuando el intento resulto no contar. Las
+     * celdas no bajan de {@code now}: una celda ya llena no acumula credito.
+     */
+    public void refund(String key) {
+        long now = nanoClock.getAsLong();
+        for (int slot : slots(key)) {
+            retreat(slot, now);
+        }
+    }
+
+    /** Nanos hasta que {@code key} tenga un token disponible, sin consumirlo. */
+    public long peek(String key) {
+        return waitNanos(slots(key), nanoClock.getAsLong());
+    }
+
+    private long waitNanos(int[] slots, long now) {
+        long best = Long.MAX_VALUE;
+        for (int slot : slots) {
+            long tat = Math.max(cells.get(slot), now);
+            best = Math.min(best, tat - now - burstNanos);
+        }
+        return Math.max(0, best);
+    }
+
+    // true si la celda avanzo; sin onlyIfAvailable solo deja de avanzar al llegar al tope
+    private boolean advance(int slot, long now, long cap, boolean onlyIfAvailable) {
+        long current;
+        long next;
+        do {
+            current = cells.get(slot);
+            long start = Math.max(current, now);
+            if (onlyIfAvailable && start - now > burstNanos) {
+                return false;
+            }
+            next = Math.min(start + intervalNanos, cap);
+            if (next <= current) {
+                return false;
+            }
+        } while (!cells.compareAndSet(slot, current, next));
+        return true;
+    }
+
+    private void retreat(int slot, long now) {
+        long current;
+        do {
+            current = cells.get(slot);
+            if (current <= now) {
+                return;
+            }
+        } while (!cells.compareAndSet(slot, current, Math.max(current - intervalNanos, now)));
+    }
+
+    private int leastLoaded(int[] slots) {
+        int best = 0;
+        for (int i = 1; i < slots.length; i++) {
+            if (cells.get(slots[i]) < cells.get(slots[best])) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private int[] slots(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int[] slots = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            slots[row] = row * width + ((h1 + row * h2) & Integer.MAX_VALUE) % width;
+        }
+        return slots;
+    }
+
+    // FNV-1a de 64 bits sembrado, con el mismo mezclado final que BloomFilter
+    private long hash64(String value) {
+        long hash = 0xcbf29ce484222325L ^ seed;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    // Reloj que arranca en 0: las celdas sin usar (0) equivalen a un bucket lleno
+    private static LongSupplier relativeClock() {
+        long origin = System.nanoTime();
+        return () -> System.nanoTime() - origin;
+    }
+}
@@ -0,0 +1,168 @@
+package com.proyecto.auth.service;
+
+import com.proyecto.auth.model.TokenRevocation;
+import com.proyecto.auth.repo.TokenRevocationRepository;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Lista de revocacion de access tokens, persistida en Postgres y replicada en memoria.
+ *
+ * <p>El caso comun ("no revocado") se resuelve con el filtro de Bloom sin tocar la base ni los
+ * mapas. La copia local avanza por un cursor sobre el id; como un bigserial puede confirmarse
+ * fuera de orden, cada refresco relee ademas una ventana corta por created_at.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final String JTI_PREFIX = "j:";
+    private static final String USER_PREFIX = "u:";
+
+    private final TokenRevocationRepository repo;
+    private final Duration tokenLifetime;
+    private final int batchSize;
+    private final int bloomCapacity;
+    private final Duration reorderWindow;
+    private final boolean loadOnStartup;
+
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<UUID, TokenRevocation> userNotBefore = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloom;
+    private int bloomSize;
+    private int bloomInsertions;
+    private long cursor;
+
+    public TokenRevocationService(TokenRevocationRepository repo,
+                                  @Value("${jwt.expiration-minutes:${APP_JWT_EXP_MIN:480}}") long expirationMinutes,
+                                  @Value("${auth.revocation.batch-size:1000}") int batchSize,
+                                  @Value("${auth.revocation.bloom-capacity:100000}") int bloomCapacity,
+                                  @Value("${auth.revocation.reorder-window-seconds:30}") long reorderWindowSeconds,
+                                  @Value("${auth.revocation.load-on-startup:true}") boolean loadOnStartup) {
+        this.repo = repo;
+        this.tokenLifetime = Duration.ofMinutes(expirationMinutes);
+        this.batchSize = batchSize;
+        this.bloomCapacity = bloomCapacity;
+        this.reorderWindow = Duration.ofSeconds(reorderWindowSeconds);
+        this.loadOnStartup = loadOnStartup;
+        this.bloom = new BloomFilter(bloomCapacity, 0.001);
+        this.bloomSize = bloomCapacity;
+    }
+
+    @PostConstruct
+    void load() {
+        // solo se desactiva en el arranque de entrenamiento del archivo CDS, que corre sin base;
+        // el primer refresco programado carga la lista igual
+        if (!loadOnStartup) {
+            log.warn("Token revocations not loaded at startup (auth.revocation.load-on-startup=false)");
+            return;
+        }
+        refresh();
+        log.info("Loaded {} token revocations", revokedTokens.size() + userNotBefore.size());
+    }
+
+    public boolean isRevoked(AuthenticatedUser user) {
+        BloomFilter current = bloom;
+        if (user.tokenId() != null && current.mightContain(JTI_PREFIX + user.tokenId())
+                && revokedTokens.containsKey(user.tokenId())) {
+            return true;
+        }
+        if (current.mightContain(USER_PREFIX + user.id())) {
+            TokenRevocation revocation = userNotBefore.get(user.id());
+            return revocation != null && user.issuedAt().isBefore(revocation.getNotBefore());
+        }
+        return false;
+    }
+
+    /** Invalida todos los tokens del usuario emitidos hasta ahora. */
+    public void revokeUser(UUID userId) {
+        Instant now = Instant.now();
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setUserId(userId);
+        // iat tiene precision de segundos: se redondea hacia arriba para no dejar pasar
+        // tokens emitidos en el mismo segundo que la revocacion
+        revocation.setNotBefore(now.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1));
+        revocation.setExpiresAt(now.plus(tokenLifetime));
+        apply(repo.save(revocation));
+    }
+
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setJti(tokenId);
+        revocation.setExpiresAt(expiresAt);
+        apply(repo.save(revocation));
+    }
+
+    @Scheduled(initialDelayString = "${auth.revocation.refresh-interval-ms:5000}",
+            fixedDelayString = "${auth.revocation.refresh-interval-ms:5000}")
+    void refresh() {
+        Instant now = Instant.now();
+        List<TokenRevocation> page;
+        do {
+            page = repo.findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(cursor, now, Limit.of(batchSize));
+            for (TokenRevocation revocation : page) {
+                apply(revocation);
+                cursor = Math.max(cursor, revocation.getId());
+            }
+        } while (page.size() == batchSize);
+        for (TokenRevocation revocation : repo.findByCreatedAtAfterAndExpiresAtAfter(now.minus(reorderWindow), now)) {
+            apply(revocation);
+        }
+        evictExpired(now);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.purge-interval-ms:600000}")
+    void purgeExpired() {
+        int deleted;
+        do {
+            deleted = repo.purgeExpired(batchSize);
+        } while (deleted == batchSize);
+    }
+
+    private synchronized void apply(TokenRevocation revocation) {
+        if (revocation.getJti() != null) {
+            if (revokedTokens.put(revocation.getJti(), revocation.getExpiresAt()) == null) {
+                bloom.put(JTI_PREFIX + revocation.getJti());
+                bloomInsertions++;
+            }
+            return;
+        }
+        TokenRevocation previous = userNotBefore.get(revocation.getUserId());
+        if (previous == null || previous.getNotBefore().isBefore(revocation.getNotBefore())) {
+            userNotBefore.put(revocation.getUserId(), revocation);
+            if (previous == null) {
+                bloom.put(USER_PREFIX + revocation.getUserId());
+                bloomInsertions++;
+            }
+        }
+    }
+
+    // El filtro no admite borrados: al vencer entradas o llenarse se reconstruye desde los mapas
+    private synchronized void evictExpired(Instant now) {
+        boolean removed = revokedTokens.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        removed |= userNotBefore.values().removeIf(revocation -> revocation.getExpiresAt().isBefore(now));
+        if (!removed && bloomInsertions <= bloomSize) {
+            return;
+        }
+        int size = revokedTokens.size() + userNotBefore.size();
+        bloomSize = Math.max(bloomCapacity, size * 2);
+        BloomFilter rebuilt = new BloomFilter(bloomSize, 0.001);
+        revokedTokens.keySet().forEach(tokenId -> rebuilt.put(JTI_PREFIX + tokenId));
+        userNotBefore.keySet().forEach(userId -> rebuilt.put(USER_PREFIX + userId));
+        bloom = rebuilt;
+        bloomInsertions = size;
+    }
+}
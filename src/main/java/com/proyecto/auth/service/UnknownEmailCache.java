@@ -0,0 +1,73 @@
+package com.proyecto.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Emails que no corresponden a ninguna cuenta, para que los logins contra cuentas inexistentes
+ * (enumeracion, credential stuffing) no consulten Postgres en cada intento. Acotada en tamano;
+ * el TTL corto cubre las altas hechas por otra replica.
+ */
+@Component
+public class UnknownEmailCache {
+
+    private final boolean enabled;
+    private final Cache<String, Boolean> cache;
+
+    public UnknownEmailCache(MeterRegistry registry,
+                             @Value("${auth.unknown-email-cache.enabled:true}") boolean enabled,
+                             @Value("${auth.unknown-email-cache.ttl-seconds:60}") long ttlSeconds,
+                             @Value("${auth.unknown-email-cache.max-entries:100000}") long maxEntries) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "unknown-email");
+    }
+
+    public boolean isUnknown(String email) {
+        return enabled && email != null && cache.getIfPresent(key(email)) != null;
+    }
+
+    public void remember(String email) {
+        if (enabled && email != null) {
+            cache.put(key(email), Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Olvida los emails dados de alta. Dentro de una transaccion se invalidan tambien tras el
+     * commit: un login concurrente podria volver a marcarlos mientras las filas aun no son visibles.
+     */
+    public void forget(Collection<String> emails) {
+        if (!enabled || emails.isEmpty()) {
+            return;
+        }
+        List<String> keys = emails.stream().filter(Objects::nonNull).map(UnknownEmailCache::key).toList();
+        cache.invalidateAll(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll(keys);
+                }
+            });
+        }
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase();
+    }
+}
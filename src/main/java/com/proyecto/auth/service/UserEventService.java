@@ -0,0 +1,298 @@
+package com.proyecto.auth.service;
+
+import com.proyecto.auth.model.User;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Feed de cambios de usuarios sobre la tabla outbox app.user_events.
+ *
+ * <p>Los consumidores avanzan con un cursor (el ultimo seq recibido) y hacen long-poll: si no hay
+ * eventos la respuesta queda en espera hasta que llegue alguno o venza el timeout. Las esperas
+ * no consultan la base cada una: un commit local las despierta de inmediato, y los cambios hechos
+ * por otras replicas se detectan con una sola consulta periodica de max(seq) por proceso.
+ */
+@Service
+public class UserEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserEventService.class);
+
+    // Clave del advisory lock que serializa a los escritores del outbox ("user" en ASCII)
+    private static final long FEED_LOCK_KEY = 0x75736572L;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO app.user_events (user_id, type, email, name, role, supervisor_id)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final String READ_SQL = """
+            SELECT seq, user_id, type, email, name, role, supervisor_id, created_at
+            FROM app.user_events
+            WHERE seq > ?
+            ORDER BY seq
+            LIMIT ?
+            """;
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public record UserEvent(long seq, UUID userId, Type type, String email, String name, String role,
+                            UUID supervisorId, OffsetDateTime createdAt) {
+    }
+
+    /** Lote entregado y cursor desde el que pedir el siguiente. */
+    public record EventBatch(List<UserEvent> events, long nextCursor) {
+    }
+
+    /** El cursor es anterior a los eventos retenidos: el consumidor debe resincronizar. */
+    public static class CursorExpiredException extends RuntimeException {
+        public CursorExpiredException(long cursor) {
+            super("Cursor " + cursor + " is older than the retained user events");
+        }
+    }
+
+    private record Waiter(long after, int limit, DeferredResult<EventBatch> result) {
+    }
+
+    private static final RowMapper<UserEvent> ROW_MAPPER = (rs, rowNum) -> new UserEvent(
+            rs.getLong("seq"),
+            rs.getObject("user_id", UUID.class),
+            Type.valueOf(rs.getString("type")),
+            rs.getString("email"),
+            rs.getString("name"),
+            rs.getString("role"),
+            rs.getObject("supervisor_id", UUID.class),
+            rs.getObject("created_at", OffsetDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxWaiters;
+    private final Duration retention;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waiterCount = new AtomicInteger();
+    private final AtomicLong lastSeenSeq = new AtomicLong();
+    private final AtomicBoolean wakePending = new AtomicBoolean();
+    // las lecturas para despertar esperas no corren en el request que hizo el cambio
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-events-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserEventService(JdbcTemplate jdbcTemplate,
+                            @Value("${auth.events.max-waiters:1000}") int maxWaiters,
+                            @Value("${auth.events.retention-days:7}") long retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxWaiters = maxWaiters;
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(Type type, User user, UUID supervisorId) {
+        publishAll(type, List.of(user), supervisorId == null ? Map.of() : Map.of(user.getId(), supervisorId));
+    }
+
+    /**
+     * Toma el lock de escritores del feed, que se libera con el commit: los seq se asignan en el
+     * mismo orden en que se confirman. Los cambios sobre users y team_members deben llamarlo antes
+     * de escribir, porque el trigger de V9 bloquea la fila de app.directory_version al primer
+     * cambio visible; con el orden inverso en dos transacciones Postgres aborta una por deadlock.
+     * Volver a llamarlo en la misma transaccion no espera.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockFeed() {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, FEED_LOCK_KEY);
+    }
+
+    /** Escribe un evento por usuario; debe llamarse dentro de la transaccion del cambio. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(Type type, List<User> users, Map<UUID, UUID> supervisorIds) {
+        if (users.isEmpty()) {
+            return;
+        }
+        lockFeed();
+        List<Object[]> rows = new ArrayList<>(users.size());
+        for (User user : users) {
+            boolean deleted = type == Type.DELETED;
+            rows.add(new Object[] {
+                    user.getId(),
+                    type.name(),
+                    deleted ? null : user.getEmail(),
+                    deleted ? null : user.getName(),
+                    deleted ? null : user.getRole().name(),
+                    deleted ? null : supervisorIds.get(user.getId())
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                signal();
+            }
+        });
+    }
+
+    public EventBatch read(long after, int limit) {
+        List<UserEvent> events = fetch(after, limit);
+        // solo si hay un hueco tras el cursor puede haberse purgado algo que el consumidor no vio;
+        // un hueco con eventos anteriores aun retenidos es un seq perdido por un rollback
+        if (after > 0 && !events.isEmpty() && events.get(0).seq() > after + 1) {
+            Long oldest = oldestSeq();
+            if (oldest != null && oldest > after + 1) {
+                throw new CursorExpiredException(after);
+            }
+        }
+        long next = events.isEmpty() ? after : events.get(events.size() - 1).seq();
+        return new EventBatch(events, next);
+    }
+
+    /**
+     * Ultimo seq confirmado. Con el advisory lock de los escritores todos los seq menores ya
+     * estan confirmados, asi que seguir el feed desde aqui no pierde cambios posteriores.
+     */
+    public long currentCursor() {
+        Long max = jdbcTemplate.queryForObject("SELECT coalesce(max(seq), 0) FROM app.user_events", Long.class);
+        return max == null ? 0 : max;
+    }
+
+    /**
+     * Devuelve el lote de inmediato si hay eventos; si no, espera hasta {@code timeout}. Con
+     * timeout cero, o si ya hay demasiadas esperas abiertas, responde en el acto (vacio si no hay
+     * nada) para que el cliente reintente.
+     */
+    public DeferredResult<EventBatch> await(long after, int limit, Duration timeout) {
+        if (timeout.isZero() || waiterCount.get() >= maxWaiters) {
+            // un DeferredResult con timeout 0 no venceria nunca: para el servlet 0 es "sin limite"
+            DeferredResult<EventBatch> result = new DeferredResult<>();
+            result.setResult(read(after, limit));
+            return result;
+        }
+        DeferredResult<EventBatch> result =
+                new DeferredResult<>(timeout.toMillis(), () -> new EventBatch(List.of(), after));
+        Waiter waiter = new Waiter(after, limit, result);
+        waiters.add(waiter);
+        waiterCount.incrementAndGet();
+        Runnable remove = () -> remove(waiter);
+        result.onCompletion(remove);
+        result.onTimeout(remove);
+        result.onError(error -> remove.run());
+        // Se registra antes de leer: un commit posterior despierta esta espera y uno anterior sale
+        // en esta lectura. Leyendo primero, un commit entre la lectura y el registro se perdia
+        // hasta el timeout si otra espera ya habia avanzado lastSeenSeq.
+        try {
+            EventBatch batch = read(after, limit);
+            if (!batch.events().isEmpty()) {
+                remove.run();
+                result.setResult(batch);
+            }
+        } catch (RuntimeException ex) {
+            remove.run();
+            throw ex;
+        }
+        return result;
+    }
+
+    // Acceso a app.user_events, separado para probar el feed sin base
+    List<UserEvent> fetch(long after, int limit) {
+        return jdbcTemplate.query(READ_SQL, ROW_MAPPER, after, limit);
+    }
+
+    Long oldestSeq() {
+        return jdbcTemplate.queryForObject("SELECT min(seq) FROM app.user_events", Long.class);
+    }
+
+    // Detecta eventos escritos por otras replicas: una consulta por intervalo, solo si hay esperas
+    @Scheduled(fixedDelayString = "${auth.events.poll-interval-ms:1000}")
+    void pollForRemoteEvents() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        long max = currentCursor();
+        if (max > lastSeenSeq.get()) {
+            lastSeenSeq.accumulateAndGet(max, Math::max);
+            signal();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.events.purge-interval-ms:3600000}")
+    void purgeExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM app.user_events WHERE created_at < ?",
+                Timestamp.from(Instant.now().minus(retention)));
+        if (deleted > 0) {
+            log.info("Purged {} user events older than {}", deleted, retention);
+        }
+    }
+
+    @PreDestroy
+    void releaseWaiters() {
+        notifier.shutdownNow();
+        Waiter waiter;
+        while ((waiter = waiters.poll()) != null) {
+            waiter.result().setResult(new EventBatch(List.of(), waiter.after()));
+        }
+    }
+
+    // Varios commits seguidos se agrupan en una sola ronda de lecturas
+    private void signal() {
+        if (wakePending.compareAndSet(false, true)) {
+            notifier.execute(() -> {
+                wakePending.set(false);
+                wakeWaiters();
+            });
+        }
+    }
+
+    // Los consumidores al dia comparten cursor: una lectura por (cursor, limite) distinto
+    void wakeWaiters() {
+        Map<String, EventBatch> reads = new HashMap<>();
+        for (Waiter waiter : waiters) {
+            if (waiter.result().isSetOrExpired()) {
+                continue;
+            }
+            EventBatch batch;
+            try {
+                batch = reads.computeIfAbsent(waiter.after() + ":" + waiter.limit(),
+                        key -> read(waiter.after(), waiter.limit()));
+            } catch (RuntimeException ex) {
+                waiter.result().setErrorResult(ex);
+                continue;
+            }
+            if (!batch.events().isEmpty()) {
+                lastSeenSeq.accumulateAndGet(batch.nextCursor(), Math::max);
+                // fuera de la cola ya, sin esperar al callback de completion del contenedor
+                remove(waiter);
+                waiter.result().setResult(batch);
+            }
+        }
+    }
+
+    private void remove(Waiter waiter) {
+        if (waiters.remove(waiter)) {
+            waiterCount.decrementAndGet();
+        }
+    }
+}
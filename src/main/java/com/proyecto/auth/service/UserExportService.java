@@ -0,0 +1,130 @@
+package com.proyecto.auth.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Exporta el directorio como NDJSON con memoria constante: un cursor JDBC de solo avance
+ * (fetch size + transaccion de solo lectura, requisito de Postgres para no traer todo el
+ * resultado) y cada fila se escribe en cuanto se lee.
+ */
+@Service
+public class UserExportService {
+
+    private static final String EXPORT_SQL = """
+            SELECT u.id, u.name, u.email, u.role, tm.team_id, u.updated_at
+            FROM app.users u
+            LEFT JOIN app.team_members tm ON tm.user_id = u.id
+            """;
+    private static final String ORDER_BY = " ORDER BY u.updated_at, u.id";
+    private static final int FLUSH_EVERY = 500;
+
+    public record ExportedUser(UUID id, String name, String email, String role,
+                               UUID supervisorId, UUID teamId, OffsetDateTime updatedAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper objectMapper;
+
+    public UserExportService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${auth.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(OffsetDateTime updatedSince, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ExportedUser.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            RowWriter rowWriter = new RowWriter(writer, generator);
+            readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(exportQuery(updatedSince), rowWriter));
+            if (rowWriter.written > 0) {
+                generator.writeRaw('\n');
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    // El fetch size va en la sentencia: el JdbcTemplate es el compartido de la aplicacion
+    private PreparedStatementCreator exportQuery(OffsetDateTime updatedSince) {
+        return connection -> {
+            String sql = updatedSince == null
+                    ? EXPORT_SQL + ORDER_BY
+                    : EXPORT_SQL + " WHERE u.updated_at > ?" + ORDER_BY;
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(fetchSize);
+            if (updatedSince != null) {
+                statement.setObject(1, updatedSince);
+            }
+            return statement;
+        };
+    }
+
+    private static final class RowWriter implements RowCallbackHandler {
+
+        private final ObjectWriter writer;
+        private final JsonGenerator generator;
+        private UUID lastId;
+        private long written;
+
+        RowWriter(ObjectWriter writer, JsonGenerator generator) {
+            this.writer = writer;
+            this.generator = generator;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            UUID id = rs.getObject("id", UUID.class);
+            // un usuario con varios equipos aparece en filas contiguas: se exporta una vez
+            if (id.equals(lastId)) {
+                return;
+            }
+            lastId = id;
+            UUID teamId = rs.getObject("team_id", UUID.class);
+            try {
+                writer.writeValue(generator, new ExportedUser(
+                        id,
+                        rs.getString("name"),
+                        rs.getString("email"),
+                        rs.getString("role"),
+                        teamId,
+                        teamId,
+                        rs.getObject("updated_at", OffsetDateTime.class)
+                ));
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            } catch (IOException ex) {
+                // el cliente cerro la conexion: se aborta la consulta
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.proyecto.auth.service;
+
+import com.proyecto.auth.model.User;
+import com.proyecto.auth.repo.UserSummary;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolucion de muchos usuarios por id en una sola consulta, para los servicios que arman
+ * listados y hoy llaman a /users/{id} una vez por fila. {@code = ANY(?)} con un solo parametro
+ * array mantiene un unico plan preparado sin importar cuantos ids lleguen.
+ */
+@Service
+public class UserLookupService {
+
+    private static final String FIND_SQL = """
+            SELECT u.id, u.name, u.email, u.role, tm.team_id
+            FROM app.users u
+            LEFT JOIN app.team_members tm ON tm.user_id = u.id
+            WHERE u.id = ANY(?)
+            ORDER BY u.id, tm.team_id
+            """;
+    private static final String EXISTS_SQL = "SELECT id FROM app.users WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserLookupService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Usuarios encontrados, uno por id (los ids inexistentes se omiten). */
+    public List<UserSummary> findAll(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, UserSummary> users = new LinkedHashMap<>();
+        jdbcTemplate.query(connection -> prepare(connection, FIND_SQL, ids), (ResultSet rs) -> {
+            UUID id = rs.getObject("id", UUID.class);
+            // con varios equipos se toma el primero, igual que /auth/users
+            if (!users.containsKey(id)) {
+                users.put(id, new UserSummary(id, rs.getString("name"), rs.getString("email"),
+                        User.Role.valueOf(rs.getString("role")), rs.getObject("team_id", UUID.class)));
+            }
+        });
+        return new ArrayList<>(users.values());
+    }
+
+    /** Subconjunto de {@code ids} que existe. */
+    public List<UUID> findExisting(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(connection -> prepare(connection, EXISTS_SQL, ids),
+                (rs, rowNum) -> rs.getObject("id", UUID.class));
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, Collection<UUID> ids) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        Array array = connection.createArrayOf("uuid", ids.toArray());
+        statement.setArray(1, array);
+        return statement;
+    }
+}
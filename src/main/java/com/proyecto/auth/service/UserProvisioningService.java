@@ -0,0 +1,241 @@
+package com.proyecto.auth.service;
+
+import com.proyecto.auth.model.TeamMember;
+import com.proyecto.auth.model.User;
+import com.proyecto.auth.repo.TeamMemberRepository;
+import com.proyecto.auth.repo.UserRepository;
+import com.proyecto.auth.web.RegisterRequest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Alta masiva de usuarios. Valida todo el lote con una consulta de emails y una validacion por
+ * supervisor distinto, hashea en paralelo en el pool de hashing y escribe users y team_members
+ * con inserciones JDBC en lote dentro de una sola transaccion.
+ */
+@Service
+public class UserProvisioningService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserProvisioningService.class);
+
+    public record RowResult(int index, String email, String status, UUID id, String error) {
+
+        static RowResult created(int index, User user) {
+            return new RowResult(index, user.getEmail(), "created", user.getId(), null);
+        }
+
+        static RowResult failed(int index, String email, String error) {
+            return new RowResult(index, email, "error", null, error);
+        }
+    }
+
+    private record Candidate(int index, User user, String rawPassword, UUID supervisorId) {
+
+        // El insert fallido ya asigno id a la entidad: el reintento parte de una nueva
+        Candidate detached() {
+            User copy = new User();
+            copy.setEmail(user.getEmail());
+            copy.setName(user.getName());
+            copy.setRole(user.getRole());
+            copy.setPasswordHash(user.getPasswordHash());
+            return new Candidate(index, copy, rawPassword, supervisorId);
+        }
+    }
+
+    private final UserRepository repo;
+    private final TeamMemberRepository teamMemberRepository;
+    private final PasswordService passwordService;
+    private final HashingExecutor hashingExecutor;
+    private final SupervisorsClient supervisorsClient;
+    private final UnknownEmailCache unknownEmailCache;
+    private final UserEventService userEventService;
+    private final TransactionTemplate tx;
+
+    public UserProvisioningService(UserRepository repo,
+                                   TeamMemberRepository teamMemberRepository,
+                                   PasswordService passwordService,
+                                   HashingExecutor hashingExecutor,
+                                   SupervisorsClient supervisorsClient,
+                                   UnknownEmailCache unknownEmailCache,
+                                   UserEventService userEventService,
+                                   PlatformTransactionManager transactionManager) {
+        this.repo = repo;
+        this.teamMemberRepository = teamMemberRepository;
+        this.passwordService = passwordService;
+        this.hashingExecutor = hashingExecutor;
+        this.supervisorsClient = supervisorsClient;
+        this.unknownEmailCache = unknownEmailCache;
+        this.userEventService = userEventService;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Devuelve un resultado por fila, en el orden recibido. Si el pool de hashing esta saturado
+     * lanza {@link HashingSaturatedException} antes de escribir nada. Si otra alta toma un email
+     * entre la validacion y el insert se reintenta una vez sin esas filas; solo un segundo
+     * conflicto llega como {@link DataIntegrityViolationException}.
+     */
+    public List<RowResult> provision(List<RegisterRequest> requests) {
+        RowResult[] results = new RowResult[requests.size()];
+        List<Candidate> candidates = validate(requests, results);
+
+        rejectExistingEmails(candidates, results);
+        rejectUnknownSupervisors(candidates, results);
+        candidates.removeIf(candidate -> results[candidate.index()] != null);
+
+        hashPasswords(candidates);
+        List<Candidate> inserted = insertOrRetry(candidates, results);
+        for (Candidate candidate : inserted) {
+            results[candidate.index()] = RowResult.created(candidate.index(), candidate.user());
+        }
+        log.info("Provisioned {} of {} users", inserted.size(), requests.size());
+        return List.of(results);
+    }
+
+    private List<Candidate> validate(List<RegisterRequest> requests, RowResult[] results) {
+        List<Candidate> candidates = new ArrayList<>(requests.size());
+        Set<String> seenEmails = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            RegisterRequest req = requests.get(i);
+            if (req == null || req.email() == null || req.password() == null || req.name() == null || req.role() == null) {
+                results[i] = RowResult.failed(i, req != null ? req.email() : null, "Missing fields");
+                continue;
+            }
+            String email = req.email().trim().toLowerCase();
+            User.Role role;
+            try {
+                role = User.Role.valueOf(req.role().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                results[i] = RowResult.failed(i, email, "Invalid role");
+                continue;
+            }
+            if (role == User.Role.TECNICO && req.supervisorId() == null) {
+                results[i] = RowResult.failed(i, email, "Supervisor required for TECNICO role");
+                continue;
+            }
+            if (!seenEmails.add(email)) {
+                results[i] = RowResult.failed(i, email, "Duplicated email in batch");
+                continue;
+            }
+            User user = new User();
+            user.setEmail(email);
+            user.setName(req.name().trim());
+            user.setRole(role);
+            candidates.add(new Candidate(i, user, req.password(), role == User.Role.TECNICO ? req.supervisorId() : null));
+        }
+        return candidates;
+    }
+
+    private void rejectExistingEmails(List<Candidate> candidates, RowResult[] results) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<String> existing = new HashSet<>(repo.findExistingEmails(
+                candidates.stream().map(candidate -> candidate.user().getEmail()).toList()));
+        for (Candidate candidate : candidates) {
+            if (existing.contains(candidate.user().getEmail())) {
+                results[candidate.index()] = RowResult.failed(candidate.index(), candidate.user().getEmail(), "Email already registered");
+            }
+        }
+    }
+
+    // Una sola validacion por supervisor distinto, no una por fila
+    private void rejectUnknownSupervisors(List<Candidate> candidates, RowResult[] results) {
+        Set<UUID> supervisorIds = new LinkedHashSet<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.supervisorId() != null && results[candidate.index()] == null) {
+                supervisorIds.add(candidate.supervisorId());
+            }
+        }
+        Map<UUID, String> errors = new HashMap<>();
+        for (UUID supervisorId : supervisorIds) {
+            try {
+                if (supervisorsClient.fetchById(supervisorId).isEmpty()) {
+                    errors.put(supervisorId, "Supervisor not found");
+                }
+            } catch (IllegalStateException ex) {
+                errors.put(supervisorId, "No se pudo validar el supervisor indicado");
+            }
+        }
+        for (Candidate candidate : candidates) {
+            String error = candidate.supervisorId() != null ? errors.get(candidate.supervisorId()) : null;
+            if (error != null && results[candidate.index()] == null) {
+                results[candidate.index()] = RowResult.failed(candidate.index(), candidate.user().getEmail(), error);
+            }
+        }
+    }
+
+    // Ventanas del tamano del pool: se usan todos los nucleos sin desbordar la cola compartida con el login
+    private void hashPasswords(List<Candidate> candidates) {
+        int window = Math.max(1, hashingExecutor.parallelism());
+        for (int start = 0; start < candidates.size(); start += window) {
+            List<Candidate> chunk = candidates.subList(start, Math.min(candidates.size(), start + window));
+            List<CompletableFuture<String>> hashes = new ArrayList<>(chunk.size());
+            try {
+                for (Candidate candidate : chunk) {
+                    hashes.add(passwordService.encodeAsync(candidate.rawPassword()));
+                }
+            } catch (RuntimeException ex) {
+                // cola llena a mitad de ventana: lo ya encolado nadie lo va a esperar
+                HashingExecutor.cancelAll(hashes);
+                throw ex;
+            }
+            List<String> encoded = hashingExecutor.awaitAll(hashes);
+            for (int i = 0; i < chunk.size(); i++) {
+                chunk.get(i).user().setPasswordHash(encoded.get(i));
+            }
+        }
+    }
+
+    private List<Candidate> insertOrRetry(List<Candidate> candidates, RowResult[] results) {
+        try {
+            insert(candidates);
+            return candidates;
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Batch registration conflict, retrying without taken emails: {}", ex.getMostSpecificCause().getMessage());
+        }
+        List<Candidate> retry = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            retry.add(candidate.detached());
+        }
+        rejectExistingEmails(retry, results);
+        retry.removeIf(candidate -> results[candidate.index()] != null);
+        insert(retry);
+        return retry;
+    }
+
+    private void insert(List<Candidate> candidates) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        tx.executeWithoutResult(status -> {
+            userEventService.lockFeed();
+            List<User> users = repo.saveAll(candidates.stream().map(Candidate::user).toList());
+            List<TeamMember> members = new ArrayList<>();
+            Map<UUID, UUID> supervisorIds = new HashMap<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                UUID supervisorId = candidates.get(i).supervisorId();
+                if (supervisorId != null) {
+                    members.add(new TeamMember(supervisorId, users.get(i).getId()));
+                    supervisorIds.put(users.get(i).getId(), supervisorId);
+                }
+            }
+            teamMemberRepository.saveAll(members);
+            unknownEmailCache.forget(users.stream().map(User::getEmail).toList());
+            userEventService.publishAll(UserEventService.Type.CREATED, users, supervisorIds);
+        });
+    }
+}
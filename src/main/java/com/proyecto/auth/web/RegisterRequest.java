@@ -1,8 +1,11 @@
 package com.proyecto.auth.web;
 
+import java.util.UUID;
+
 public record RegisterRequest(
         String email,
         String password,
         String name,
-        String role
-) {}
\ No newline at end of file
+        String role,
+        UUID supervisorId
+) {}
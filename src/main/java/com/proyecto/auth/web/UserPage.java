@@ -0,0 +1,32 @@
+package com.proyecto.auth.web;
+
+import com.proyecto.auth.repo.UserSummary;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/** Pagina de usuarios armada a partir de las filas del LEFT JOIN con team_members. */
+public record UserPage(List<UserResponse> users, boolean hasMore) {
+
+    /**
+     * El JOIN puede repetir un usuario con varios equipos: vienen contiguos y se toma el primero.
+     * {@code rows} se pide con {@code pageSize + 1} filas para saber si hay pagina siguiente.
+     */
+    public static UserPage from(List<UserSummary> rows, int pageSize) {
+        List<UserResponse> users = new ArrayList<>(Math.min(rows.size(), pageSize));
+        UUID lastId = null;
+        boolean hasMore = rows.size() > pageSize;
+        for (UserSummary row : rows) {
+            if (row.id().equals(lastId)) {
+                continue;
+            }
+            if (users.size() == pageSize) {
+                hasMore = true;
+                break;
+            }
+            users.add(UserResponse.from(row));
+            lastId = row.id();
+        }
+        return new UserPage(users, hasMore);
+    }
+}
@@ -1,5 +1,7 @@
 package com.proyecto.auth.web;
 
+import com.proyecto.auth.model.User;
+import com.proyecto.auth.repo.UserSummary;
 import java.util.UUID;
 
 public record UserResponse(
@@ -9,4 +11,16 @@ public record UserResponse(
     String role,
     UUID supervisorId,
     UUID teamId
-) {}
+) {
+
+    // supervisorId y teamId son el mismo valor: teamId se mantiene por los clientes antiguos
+    public static UserResponse from(UserSummary user) {
+        return new UserResponse(user.id(), user.name(), user.email(), user.role().name(),
+                user.supervisorId(), user.supervisorId());
+    }
+
+    public static UserResponse from(User user, UUID supervisorId) {
+        return new UserResponse(user.getId(), user.getName(), user.getEmail(), user.getRole().name(),
+                supervisorId, supervisorId);
+    }
+}
@@ -1,30 +1,157 @@
 package com.proyecto.auth.web;
 
+import com.proyecto.auth.model.TeamMember;
+import com.proyecto.auth.model.User;
+import com.proyecto.auth.repo.TeamMemberRepository;
 import com.proyecto.auth.repo.UserRepository;
+import com.proyecto.auth.service.AuthenticatedUser;
+import com.proyecto.auth.service.UserEventService;
+import com.proyecto.auth.service.UserLookupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/users")
 public class UsersController {
 
-    public record UserResponse(UUID id, String name, String email, String role) {}
+    // /me responde con los datos del token, que no incluyen el supervisor
+    public record MeResponse(UUID id, String name, String email, String role) {}
+
+    public record ErrorResponse(String error) {}
 
     private final UserRepository repo;
+    private final TeamMemberRepository teamMemberRepository;
+    private final UserLookupService userLookupService;
+    private final UserEventService userEventService;
+    private final int batchMaxSize;
+    private final CacheControl cacheControl;
 
-    public UsersController(UserRepository repo) { this.repo = repo; }
+    public UsersController(UserRepository repo,
+                           TeamMemberRepository teamMemberRepository,
+                           UserLookupService userLookupService,
+                           UserEventService userEventService,
+                           @Value("${auth.users.batch-max-size:500}") int batchMaxSize,
+                           @Value("${auth.users.cache-max-age-seconds:30}") long cacheMaxAgeSeconds) {
+        this.repo = repo;
+        this.teamMemberRepository = teamMemberRepository;
+        this.userLookupService = userLookupService;
+        this.userEventService = userEventService;
+        this.batchMaxSize = batchMaxSize;
+        // privada: la respuesta depende del token del llamador cuando la seguridad esta activa
+        this.cacheControl = CacheControl.maxAge(cacheMaxAgeSeconds, TimeUnit.SECONDS).cachePrivate();
+    }
 
+    // Datos del llamador tomados del token, sin consultar la base
+    @GetMapping("/me")
+    public ResponseEntity<MeResponse> me(@AuthenticationPrincipal AuthenticatedUser user) {
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+        return ResponseEntity.ok(new MeResponse(user.id(), user.name(), user.email(), user.role()));
+    }
+
+    // ETag a partir de la version de la fila. Solo una revalidacion (con If-None-Match) consulta la
+    // version en la base, para responder 304 sin hidratar la entidad; el resto sale de findById,
+    // que resuelve la cache de segundo nivel sin ir a Postgres. Misma forma que /users/batch: el
+    // equipo de un tecnico no cambia despues del alta, asi que la version de la fila basta
     @GetMapping("/{id}")
-    public ResponseEntity<UserResponse> get(@PathVariable UUID id) {
+    public ResponseEntity<UserResponse> get(@PathVariable UUID id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Long version = repo.findVersionById(id).orElse(null);
+            if (version == null) {
+                return ResponseEntity.notFound().build();
+            }
+            String etag = etag(version);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+        }
         return repo.findById(id)
-            .map(u -> ResponseEntity.ok(new UserResponse(u.getId(), u.getName(), u.getEmail(), u.getRole().name())))
+            .map(u -> ResponseEntity.ok()
+                .eTag(etag(u.getVersion()))
+                .cacheControl(cacheControl)
+                .body(UserResponse.from(u, supervisorId(u))))
             .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping("/{id}/exists")
     public ResponseEntity<Void> exists(@PathVariable UUID id) {
-        return repo.existsById(id) ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+        return repo.existsCached(id) ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+    }
+
+    // Resolucion en lote para los listados de otros servicios: una consulta en vez de una por id.
+    // Devuelve solo los usuarios encontrados, con su supervisor.
+    @PostMapping("/batch")
+    public ResponseEntity<?> getBatch(@RequestBody List<UUID> ids) {
+        Set<UUID> distinct = distinct(ids);
+        if (distinct.size() > batchMaxSize) {
+            return ResponseEntity.status(413).body(new ErrorResponse("Batch exceeds " + batchMaxSize + " ids"));
+        }
+        return ResponseEntity.ok(userLookupService.findAll(distinct).stream()
+                .map(UserResponse::from)
+                .toList());
+    }
+
+    // Devuelve los ids (de los enviados) que existen
+    @PostMapping("/exists/batch")
+    public ResponseEntity<?> existsBatch(@RequestBody List<UUID> ids) {
+        Set<UUID> distinct = distinct(ids);
+        if (distinct.size() > batchMaxSize) {
+            return ResponseEntity.status(413).body(new ErrorResponse("Batch exceeds " + batchMaxSize + " ids"));
+        }
+        return ResponseEntity.ok(userLookupService.findExisting(distinct));
+    }
+
+    // Feed de cambios (altas, bajas, cambios de rol) para mantener replicas locales del directorio.
+    // Long-poll: sin eventos despues de "after" la respuesta espera hasta waitSeconds.
+    // nextCursor es el "after" de la siguiente llamada; 410 indica que hay que resincronizar.
+    @GetMapping("/events")
+    public DeferredResult<UserEventService.EventBatch> events(@RequestParam(defaultValue = "0") long after,
+                                                             @RequestParam(defaultValue = "500") int limit,
+                                                             @RequestParam(defaultValue = "25") int waitSeconds) {
+        int batchSize = Math.max(1, Math.min(limit, 1000));
+        Duration wait = Duration.ofSeconds(Math.max(0, Math.min(waitSeconds, 60)));
+        return userEventService.await(Math.max(0, after), batchSize, wait);
+    }
+
+    @ExceptionHandler(UserEventService.CursorExpiredException.class)
+    public ResponseEntity<ErrorResponse> cursorExpired(UserEventService.CursorExpiredException ex) {
+        return ResponseEntity.status(410).body(new ErrorResponse(ex.getMessage()));
+    }
+
+    private UUID supervisorId(User user) {
+        return user.getRole() == User.Role.TECNICO
+                ? teamMemberRepository.findFirstByIdUserId(user.getId()).map(TeamMember::getTeamId).orElse(null)
+                : null;
+    }
+
+    private static String etag(long version) {
+        return "\"v" + version + "\"";
+    }
+
+    private static Set<UUID> distinct(List<UUID> ids) {
+        Set<UUID> distinct = new LinkedHashSet<>();
+        if (ids != null) {
+            for (UUID id : ids) {
+                if (id != null) {
+                    distinct.add(id);
+                }
+            }
+        }
+        return distinct;
     }
-}
\ No newline at end of file
+}
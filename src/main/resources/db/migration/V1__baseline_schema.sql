@@ -0,0 +1,18 @@
+-- Esquema existente (antes creado por Hibernate). En bases que ya lo tienen Flyway
+-- registra esta version como baseline y no la ejecuta.
+CREATE SCHEMA IF NOT EXISTS app;
+
+CREATE TABLE IF NOT EXISTS app.users (
+    id            uuid         PRIMARY KEY,
+    email         varchar(255) NOT NULL UNIQUE,
+    password_hash varchar(255) NOT NULL,
+    role          varchar(255) NOT NULL,
+    name          varchar(255) NOT NULL,
+    created_at    timestamptz  DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS app.team_members (
+    team_id uuid NOT NULL,
+    user_id uuid NOT NULL,
+    PRIMARY KEY (team_id, user_id)
+);
@@ -0,0 +1,16 @@
+-- Refresh tokens rotativos. Solo se guarda el SHA-256 del token; todas las
+-- consultas del flujo de refresh van por token_hash, user_id o family_id.
+CREATE TABLE app.refresh_tokens (
+    id         uuid        PRIMARY KEY,
+    user_id    uuid        NOT NULL,
+    family_id  uuid        NOT NULL,
+    token_hash varchar(64) NOT NULL,
+    expires_at timestamptz NOT NULL,
+    created_at timestamptz NOT NULL DEFAULT now(),
+    rotated_at timestamptz
+);
+
+CREATE UNIQUE INDEX refresh_tokens_token_hash_uq ON app.refresh_tokens (token_hash);
+CREATE INDEX refresh_tokens_user_id_idx ON app.refresh_tokens (user_id);
+CREATE INDEX refresh_tokens_family_id_idx ON app.refresh_tokens (family_id);
+CREATE INDEX refresh_tokens_expires_at_idx ON app.refresh_tokens (expires_at);
@@ -0,0 +1,14 @@
+-- Revocaciones de access tokens: por jti o por usuario ("no antes de").
+-- Cada instancia mantiene una copia en memoria y lee los cambios por id creciente.
+CREATE TABLE app.token_revocations (
+    id         bigserial   PRIMARY KEY,
+    jti        varchar(64),
+    user_id    uuid,
+    not_before timestamptz,
+    expires_at timestamptz NOT NULL,
+    created_at timestamptz NOT NULL DEFAULT now(),
+    CHECK (jti IS NOT NULL OR (user_id IS NOT NULL AND not_before IS NOT NULL))
+);
+
+CREATE INDEX token_revocations_created_at_idx ON app.token_revocations (created_at);
+CREATE INDEX token_revocations_expires_at_idx ON app.token_revocations (expires_at);
@@ -0,0 +1,4 @@
+-- Marca de ultima modificacion para sincronizaciones incrementales (export ?updatedSince=)
+ALTER TABLE app.users ADD COLUMN IF NOT EXISTS updated_at timestamptz NOT NULL DEFAULT now();
+
+CREATE INDEX IF NOT EXISTS users_updated_at_idx ON app.users (updated_at, id);
@@ -0,0 +1,2 @@
+-- La PK es (team_id, user_id): buscar el equipo de un usuario no puede usarla y recorria la tabla.
+CREATE INDEX IF NOT EXISTS team_members_user_id_idx ON app.team_members (user_id);
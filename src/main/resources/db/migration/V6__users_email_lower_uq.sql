@@ -0,0 +1,7 @@
+-- register siempre guardo el email en minusculas, pero las altas antiguas o manuales pueden no
+-- estarlo. Se normalizan (falla si hay dos cuentas que solo difieren en mayusculas, a resolver
+-- a mano) y el indice funcional garantiza unicidad sin distinguir mayusculas y sirve a las
+-- busquedas por lower(email).
+UPDATE app.users SET email = lower(email) WHERE email <> lower(email);
+
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_lower_uq ON app.users (lower(email));
@@ -0,0 +1,28 @@
+-- Version por usuario (ETag de /users/{id}) y version global del directorio (ETag de /auth/users).
+ALTER TABLE app.users ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+
+-- Contador transaccional: se confirma junto con el cambio que lo incrementa, asi que nunca se ve
+-- una version nueva con datos viejos. Un trigger por sentencia (no por fila) lo incrementa una
+-- vez por INSERT/UPDATE/DELETE aunque toque muchas filas.
+CREATE TABLE app.directory_version (
+    id      smallint PRIMARY KEY CHECK (id = 1),
+    version bigint   NOT NULL
+);
+
+INSERT INTO app.directory_version (id, version) VALUES (1, 0);
+
+CREATE FUNCTION app.bump_directory_version() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE app.directory_version SET version = version + 1 WHERE id = 1;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER users_directory_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON app.users
+    FOR EACH STATEMENT EXECUTE FUNCTION app.bump_directory_version();
+
+CREATE TRIGGER team_members_directory_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON app.team_members
+    FOR EACH STATEMENT EXECUTE FUNCTION app.bump_directory_version();
@@ -0,0 +1,15 @@
+-- Outbox de cambios de usuarios, escrito en la misma transaccion que el cambio. Los escritores
+-- toman un advisory lock antes de insertar, asi el orden de seq coincide con el de commit y un
+-- consumidor que avanza por "seq > cursor" nunca se salta un evento confirmado tarde.
+CREATE TABLE app.user_events (
+    seq           bigserial    PRIMARY KEY,
+    user_id       uuid         NOT NULL,
+    type          varchar(16)  NOT NULL,
+    email         varchar(255),
+    name          varchar(255),
+    role          varchar(255),
+    supervisor_id uuid,
+    created_at    timestamptz  NOT NULL DEFAULT now()
+);
+
+CREATE INDEX user_events_created_at_idx ON app.user_events (created_at);
@@ -0,0 +1,85 @@
+-- El contador de V7 se incrementaba con cualquier sentencia sobre users o team_members, aunque no
+-- tocara filas (el UPDATE condicional del rehash) o solo cambiara password_hash/updated_at/version,
+-- y una vez por sentencia en las altas en lote. Cada incremento toma el lock de la fila unica
+-- hasta el commit: todos los escritores se serializaban y el ETag de /auth/users se invalidaba
+-- sin motivo. Ahora solo se incrementa si cambia algo que muestra el directorio, y una vez por
+-- transaccion.
+DROP TRIGGER IF EXISTS users_directory_version ON app.users;
+DROP TRIGGER IF EXISTS team_members_directory_version ON app.team_members;
+
+-- set_config(..., true) vive hasta el fin de la transaccion
+CREATE FUNCTION app.bump_directory_version_once() RETURNS void
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF coalesce(current_setting('app.directory_version_bumped', true), '') <> 'on' THEN
+        UPDATE app.directory_version SET version = version + 1 WHERE id = 1;
+        PERFORM set_config('app.directory_version_bumped', 'on', true);
+    END IF;
+END
+$$;
+
+-- INSERT / DELETE: solo si la sentencia afecto alguna fila
+CREATE FUNCTION app.directory_rows_changed() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM changed_rows) THEN
+        PERFORM app.bump_directory_version_once();
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+-- UPDATE de users: solo cuentan las columnas que expone el directorio
+CREATE FUNCTION app.directory_users_updated() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF EXISTS (
+        SELECT 1
+        FROM new_rows n
+        JOIN old_rows o ON o.id = n.id
+        WHERE (n.email, n.name, n.role) IS DISTINCT FROM (o.email, o.name, o.role)
+    ) THEN
+        PERFORM app.bump_directory_version_once();
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+-- Postgres no admite tablas de transicion en triggers de varios eventos: uno por evento
+CREATE TRIGGER users_directory_insert
+    AFTER INSERT ON app.users
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION app.directory_rows_changed();
+
+CREATE TRIGGER users_directory_update
+    AFTER UPDATE ON app.users
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION app.directory_users_updated();
+
+CREATE TRIGGER users_directory_delete
+    AFTER DELETE ON app.users
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION app.directory_rows_changed();
+
+CREATE TRIGGER users_directory_truncate
+    AFTER TRUNCATE ON app.users
+    FOR EACH STATEMENT EXECUTE FUNCTION app.bump_directory_version();
+
+CREATE TRIGGER team_members_directory_insert
+    AFTER INSERT ON app.team_members
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION app.directory_rows_changed();
+
+CREATE TRIGGER team_members_directory_update
+    AFTER UPDATE ON app.team_members
+    REFERENCING NEW TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION app.directory_rows_changed();
+
+CREATE TRIGGER team_members_directory_delete
+    AFTER DELETE ON app.team_members
+    REFERENCING OLD TABLE AS changed_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION app.directory_rows_changed();
+
+CREATE TRIGGER team_members_directory_truncate
+    AFTER TRUNCATE ON app.team_members
+    FOR EACH STATEMENT EXECUTE FUNCTION app.bump_directory_version();
@@ -0,0 +1,102 @@
+package com.proyecto.auth.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.proyecto.auth.model.User;
+import com.proyecto.auth.repo.TeamMemberRepository;
+import com.proyecto.auth.repo.UserRepository;
+import com.proyecto.auth.service.JwtService;
+import com.proyecto.auth.service.LoginThrottle;
+import com.proyecto.auth.service.LoginVerificationCache;
+import com.proyecto.auth.service.PasswordService;
+import com.proyecto.auth.service.PasswordUpgradeService;
+import com.proyecto.auth.service.RefreshTokenService;
+import com.proyecto.auth.service.RequestPhaseTimers;
+import com.proyecto.auth.service.SupervisorsClient;
+import com.proyecto.auth.service.TokenRevocationService;
+import com.proyecto.auth.service.UnknownEmailCache;
+import com.proyecto.auth.service.UserEventService;
+import com.proyecto.auth.service.UserExportService;
+import com.proyecto.auth.service.UserProvisioningService;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class AuthControllerRefreshTest {
+
+    private final UserRepository repo = mock(UserRepository.class);
+    private final TeamMemberRepository teamMemberRepository = mock(TeamMemberRepository.class);
+    private final JwtService jwtService = mock(JwtService.class);
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private final AuthController controller = new AuthController(
+            repo,
+            mock(PasswordService.class),
+            mock(PasswordUpgradeService.class),
+            mock(LoginVerificationCache.class),
+            mock(LoginThrottle.class),
+            mock(UnknownEmailCache.class),
+            teamMemberRepository,
+            mock(SupervisorsClient.class),
+            jwtService,
+            refreshTokenService,
+            mock(TokenRevocationService.class),
+            mock(UserExportService.class),
+            mock(UserEventService.class),
+            mock(UserProvisioningService.class),
+            mock(RequestPhaseTimers.class),
+            new ObjectMapper(),
+            1000);
+
+    @Test
+    void refreshAfterRoleChangeSignsTheRoleInTheDatabase() {
+        UUID userId = UUID.randomUUID();
+        UUID teamId = UUID.randomUUID();
+        // la cache de esta replica aun tiene el rol anterior al cambio hecho en otra
+        when(repo.findById(userId)).thenReturn(Optional.of(user(userId, User.Role.SUPERVISOR)));
+        when(repo.findCurrentById(userId)).thenReturn(Optional.of(user(userId, User.Role.TECNICO)));
+        when(teamMemberRepository.findCurrentTeamIds(userId)).thenReturn(List.of(teamId));
+        when(refreshTokenService.rotate("presented")).thenReturn(Optional.of(new RefreshTokenService.Rotation(
+                userId, new RefreshTokenService.IssuedToken("next", Instant.now()))));
+        when(jwtService.generate(any(User.class), any())).thenReturn("access");
+
+        var response = controller.refresh(new AuthController.RefreshRequest("presented"));
+
+        assertEquals(200, response.getStatusCode().value());
+        ArgumentCaptor<User> signed = ArgumentCaptor.forClass(User.class);
+        verify(jwtService).generate(signed.capture(), eq(teamId));
+        assertEquals(User.Role.TECNICO, signed.getValue().getRole());
+        verify(repo, never()).findById(any());
+    }
+
+    @Test
+    void refreshForDeletedUserIsRejected() {
+        UUID userId = UUID.randomUUID();
+        when(repo.findCurrentById(userId)).thenReturn(Optional.empty());
+        when(refreshTokenService.rotate("presented")).thenReturn(Optional.of(new RefreshTokenService.Rotation(
+                userId, new RefreshTokenService.IssuedToken("next", Instant.now()))));
+
+        var response = controller.refresh(new AuthController.RefreshRequest("presented"));
+
+        assertEquals(401, response.getStatusCode().value());
+        verify(jwtService, never()).generate(any(User.class), any());
+    }
+
+    private static User user(UUID id, User.Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("tecnico@example.com");
+        user.setName("Tecnico");
+        user.setRole(role);
+        return user;
+    }
+}
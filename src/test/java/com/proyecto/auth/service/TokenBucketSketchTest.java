@@ -0,0 +1,99 @@
+package com.proyecto.auth.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketSketchTest {
+
+    private static final Duration INTERVAL = Duration.ofSeconds(10);
+
+    private final AtomicLong now = new AtomicLong();
+    private final TokenBucketSketch sketch = new TokenBucketSketch(1024, 2, 3, INTERVAL, 42L, now::get);
+
+    @Test
+    void allowsBurstThenReportsWaitUntilNextToken() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, sketch.tryAcquire("a@demo.com"));
+        }
+        assertEquals(INTERVAL.toNanos(), sketch.tryAcquire("a@demo.com"));
+
+        now.addAndGet(INTERVAL.toNanos());
+        assertEquals(0, sketch.tryAcquire("a@demo.com"));
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        for (int i = 0; i < 3; i++) {
+            sketch.tryAcquire("a@demo.com");
+        }
+        assertTrue(sketch.peek("a@demo.com") > 0);
+        assertEquals(0, sketch.peek("b@demo.com"));
+    }
+
+    @Test
+    void peekDoesNotConsume() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, sketch.peek("a@demo.com"));
+        }
+        assertEquals(0, sketch.tryAcquire("a@demo.com"));
+    }
+
+    @Test
+    void refundReturnsTheTokenWithoutBankingCredit() {
+        for (int i = 0; i < 3; i++) {
+            sketch.tryAcquire("a@demo.com");
+        }
+        sketch.refund("a@demo.com");
+        assertEquals(0, sketch.tryAcquire("a@demo.com"));
+        assertTrue(sketch.peek("a@demo.com") > 0);
+
+        // un bucket lleno no guarda devoluciones de mas
+        for (int i = 0; i < 10; i++) {
+            sketch.refund("b@demo.com");
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, sketch.tryAcquire("b@demo.com"));
+        }
+        assertTrue(sketch.tryAcquire("b@demo.com") > 0);
+    }
+
+    @Test
+    void concurrentAttemptsDoNotExceedCapacity() throws Exception {
+        int threads = 32;
+        for (int round = 0; round < 50; round++) {
+            // buckets llenos en cada ronda: una colision con la clave de otra ronda no cuenta
+            now.addAndGet(INTERVAL.toNanos() * 4);
+            String key = "race-" + round + "@demo.com";
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger admitted = new AtomicInteger();
+            List<Future<?>> attempts = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                attempts.add(pool.submit(() -> {
+                    start.await();
+                    if (sketch.tryAcquire(key) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> attempt : attempts) {
+                attempt.get();
+            }
+            pool.shutdown();
+            assertEquals(3, admitted.get());
+        }
+    }
+}
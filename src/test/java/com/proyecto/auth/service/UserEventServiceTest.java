@@ -0,0 +1,163 @@
+package com.proyecto.auth.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.proyecto.auth.service.UserEventService.EventBatch;
+import com.proyecto.auth.service.UserEventService.UserEvent;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+class UserEventServiceTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(25);
+
+    // app.user_events en memoria, ordenada por seq
+    private final List<UserEvent> table = new ArrayList<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+    // commit que llega mientras una lectura ya tomo su foto de la tabla
+    private Runnable commitDuringNextFetch;
+
+    private final UserEventService service = new UserEventService(null, 10, 7) {
+        @Override
+        List<UserEvent> fetch(long after, int limit) {
+            fetches.incrementAndGet();
+            List<UserEvent> rows = table.stream().filter(event -> event.seq() > after).limit(limit).toList();
+            Runnable commit = commitDuringNextFetch;
+            if (commit != null) {
+                commitDuringNextFetch = null;
+                commit.run();
+            }
+            return rows;
+        }
+
+        @Override
+        Long oldestSeq() {
+            return table.isEmpty() ? null : table.get(0).seq();
+        }
+    };
+
+    @Test
+    void gapLeftByRolledBackWriterDoesNotExpireCursor() {
+        insert(1, 2, 3, 4, 5, 7);
+
+        EventBatch batch = service.read(5, 10);
+
+        assertEquals(List.of(7L), seqs(batch));
+        assertEquals(7, batch.nextCursor());
+    }
+
+    @Test
+    void purgedEventsAfterCursorExpireIt() {
+        insert(9, 10);
+
+        assertThrows(UserEventService.CursorExpiredException.class, () -> service.read(5, 10));
+    }
+
+    @Test
+    void cursorJustBeforeOldestRetainedEventIsValid() {
+        insert(6, 7);
+
+        assertEquals(List.of(6L, 7L), seqs(service.read(5, 10)));
+    }
+
+    @Test
+    void initialCursorNeverExpires() {
+        insert(40, 41);
+
+        assertEquals(List.of(40L, 41L), seqs(service.read(0, 10)));
+    }
+
+    @Test
+    void emptyReadKeepsCursor() {
+        insert(1, 2);
+
+        EventBatch batch = service.read(2, 10);
+
+        assertTrue(batch.events().isEmpty());
+        assertEquals(2, batch.nextCursor());
+    }
+
+    @Test
+    void zeroWaitAnswersAtOnce() {
+        DeferredResult<EventBatch> result = service.await(3, 10, Duration.ZERO);
+
+        assertTrue(result.hasResult());
+        EventBatch batch = (EventBatch) result.getResult();
+        assertTrue(batch.events().isEmpty());
+        assertEquals(3, batch.nextCursor());
+    }
+
+    @Test
+    void pendingEventsAnswerWithoutWaiting() {
+        insert(1, 2);
+
+        DeferredResult<EventBatch> result = service.await(1, 10, WAIT);
+
+        assertTrue(result.hasResult());
+        assertEquals(List.of(2L), seqs((EventBatch) result.getResult()));
+    }
+
+    @Test
+    void commitDuringInitialReadWakesTheWaiter() {
+        insert(1);
+        // la lectura inicial no ve el evento 2; su commit despierta las esperas antes de que await vuelva
+        commitDuringNextFetch = () -> {
+            insert(2);
+            service.wakeWaiters();
+        };
+
+        DeferredResult<EventBatch> result = service.await(1, 10, WAIT);
+
+        assertTrue(result.hasResult());
+        assertEquals(List.of(2L), seqs((EventBatch) result.getResult()));
+    }
+
+    @Test
+    void waitersOnSameCursorShareOneRead() {
+        insert(1);
+        DeferredResult<EventBatch> first = service.await(1, 10, WAIT);
+        DeferredResult<EventBatch> second = service.await(1, 10, WAIT);
+        DeferredResult<EventBatch> behind = service.await(0, 10, WAIT);
+        assertFalse(first.hasResult());
+        assertFalse(second.hasResult());
+        assertTrue(behind.hasResult());
+
+        insert(2);
+        fetches.set(0);
+        service.wakeWaiters();
+
+        assertEquals(1, fetches.get());
+        assertEquals(List.of(2L), seqs((EventBatch) first.getResult()));
+        assertEquals(List.of(2L), seqs((EventBatch) second.getResult()));
+    }
+
+    @Test
+    void wakeWithoutNewEventsKeepsWaiting() {
+        insert(1);
+        DeferredResult<EventBatch> result = service.await(1, 10, WAIT);
+
+        service.wakeWaiters();
+
+        assertFalse(result.hasResult());
+    }
+
+    private void insert(long... seqs) {
+        for (long seq : seqs) {
+            table.add(new UserEvent(seq, UUID.randomUUID(), UserEventService.Type.CREATED,
+                    "user" + seq + "@demo.com", "Usuario " + seq, "TECNICO", null, OffsetDateTime.now()));
+        }
+    }
+
+    private static List<Long> seqs(EventBatch batch) {
+        return batch.events().stream().map(UserEvent::seq).toList();
+    }
+}